@@ -1,7 +1,45 @@
+import beziercurve.BezierCurve;
 import beziercurve.BezierCurveGUI;
+import beziercurve.BezierFollower;
+import beziercurve.Robot;
+import beziercurve.SimulationSetup;
+import beziercurve.telemetry.TelemetryLog;
+import beziercurve.telemetry.TelemetryReplay;
+import util.SimulatedClock;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 public class Main {
-    public static void main(String[] args) {
-        new BezierCurveGUI();
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && args[0].equals("--compare")) {
+            compare(Path.of(args[1]));
+            return;
+        }
+        new BezierCurveGUI(args.length > 0 ? Path.of(args[0]) : null);
+    }
+
+    /**
+     * Runs every follower mode against a run recorded with the GUI's setup, and prints how far each
+     * mode's commands are from the recorded ones.
+     */
+    private static void compare(Path path) throws IOException {
+        TelemetryReplay replay = new TelemetryReplay(new TelemetryLog(path));
+        for (BezierFollower.Mode mode : BezierFollower.Mode.values()) {
+            BezierCurve bezierCurve = SimulationSetup.createCurve();
+            SimulatedClock clock = new SimulatedClock(0);
+            Robot robot = SimulationSetup.createRobot(bezierCurve);
+            robot.setClock(clock);
+
+            BezierFollower follower = new BezierFollower(bezierCurve, robot, SimulationSetup.FOLLOWER_CONSTANTS);
+            follower.setClock(clock);
+            follower.setMode(mode);
+            follower.start();
+
+            TelemetryReplay.Comparison comparison = replay.compare(follower, robot, clock);
+            System.out.printf("%s: %d ticks, velocity %.3f m/s RMS (%.3f max), omega %.3f deg/s RMS, %.1fx real time%n",
+                    mode, comparison.ticks(), comparison.rmsVelocityDifference(), comparison.maxVelocityDifference(),
+                    comparison.rmsOmegaDifference(), comparison.getSpeedup());
+        }
     }
-}
\ No newline at end of file
+}
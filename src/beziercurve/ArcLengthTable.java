@@ -0,0 +1,183 @@
+package beziercurve;
+
+import math.geometry.Translation2d;
+
+/**
+ * Samples a curve at evenly spaced t values once and stores the cumulative chord length at every
+ * sample, so conversions between t, arc length and location are table lookups instead of numeric
+ * integration.
+ */
+public class ArcLengthTable {
+    private final int revision;
+
+    private final double[] x;
+    private final double[] y;
+    private final double[] distance;
+
+    public ArcLengthTable(BezierCurve bezierCurve, int samples) {
+        this.revision = bezierCurve.getRevision();
+
+        this.x = new double[samples];
+        this.y = new double[samples];
+        this.distance = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            Translation2d location = bezierCurve.getLocation(this.getT(i));
+            this.x[i] = location.getX();
+            this.y[i] = location.getY();
+            if (i > 0)
+                this.distance[i] = this.distance[i - 1] + Math.hypot(this.x[i] - this.x[i - 1], this.y[i] - this.y[i - 1]);
+        }
+    }
+
+    public double getLength() {
+        return this.distance[this.distance.length - 1];
+    }
+
+    public int size() {
+        return this.distance.length;
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+
+    public double getT(int index) {
+        return index / (this.distance.length - 1d);
+    }
+
+    public double getX(int index) {
+        return this.x[index];
+    }
+
+    public double getY(int index) {
+        return this.y[index];
+    }
+
+    public double getDistance(int index) {
+        return this.distance[index];
+    }
+
+    public double getDistance(double t) {
+        double position = Math.max(0, Math.min(t, 1)) * (this.distance.length - 1);
+        int index = Math.min((int) position, this.distance.length - 2);
+        return this.distance[index] + (this.distance[index + 1] - this.distance[index]) * (position - index);
+    }
+
+    public double getT(double distance) {
+        int index = this.getIndex(distance);
+        return this.getT(index) + (this.getT(index + 1) - this.getT(index)) * this.getFraction(index, distance);
+    }
+
+    public Translation2d getLocation(double distance) {
+        int index = this.getIndex(distance);
+        double fraction = this.getFraction(index, distance);
+        return new Translation2d(
+                this.x[index] + (this.x[index + 1] - this.x[index]) * fraction,
+                this.y[index] + (this.y[index + 1] - this.y[index]) * fraction);
+    }
+
+    public double getXAtDistance(double distance) {
+        int index = this.getIndex(distance);
+        return this.x[index] + (this.x[index + 1] - this.x[index]) * this.getFraction(index, distance);
+    }
+
+    public double getYAtDistance(double distance) {
+        int index = this.getIndex(distance);
+        return this.y[index] + (this.y[index + 1] - this.y[index]) * this.getFraction(index, distance);
+    }
+
+    /**
+     * Returns the index of the sample closest to the given point, searching around a previous result
+     * instead of over the whole table. The search only looks a limited arc length ahead, so a path
+     * that doubles back on itself does not make the result jump over the part in between.
+     *
+     * @param x The x of the point.
+     * @param y The y of the point.
+     * @param startIndex The previous result, or a negative value to search the whole table.
+     * @param window How many samples to check behind the start index.
+     * @param searchDistance How far ahead of the start index to search, in arc length.
+     * @return The index of the closest sample.
+     */
+    public int getClosestIndex(double x, double y, int startIndex, int window, double searchDistance) {
+        int from = 0;
+        int to = this.distance.length - 1;
+        if (startIndex >= 0 && startIndex < this.distance.length) {
+            from = Math.max(0, startIndex - window);
+            to = Math.max(startIndex, this.getIndex(this.distance[startIndex] + searchDistance) + 1);
+            to = Math.min(to, this.distance.length - 1);
+        }
+
+        int closest = from;
+        double minDistance = this.getDistanceSquared(from, x, y);
+        for (int i = from + 1; i <= to; i++) {
+            double distance = this.getDistanceSquared(i, x, y);
+            if (distance < minDistance) {
+                minDistance = distance;
+                closest = i;
+            }
+        }
+
+        // The robot may have moved further than the search distance since the last search
+        while (closest == to && closest < this.distance.length - 1 && this.getDistanceSquared(closest + 1, x, y) < minDistance) {
+            minDistance = this.getDistanceSquared(++closest, x, y);
+            to = closest;
+        }
+        return closest;
+    }
+
+    /**
+     * Projects a point onto the segments next to a sample and returns the arc length of the projection.
+     *
+     * @param index The closest sample to the point.
+     * @param x The x of the point.
+     * @param y The y of the point.
+     * @return The arc length of the projected point.
+     */
+    public double project(int index, double x, double y) {
+        double best = this.distance[index];
+        double minDistance = this.getDistanceSquared(index, x, y);
+        for (int i = Math.max(0, index - 1); i <= Math.min(index, this.distance.length - 2); i++) {
+            double dx = this.x[i + 1] - this.x[i];
+            double dy = this.y[i + 1] - this.y[i];
+            double lengthSquared = dx * dx + dy * dy;
+            if (lengthSquared == 0)
+                continue;
+
+            double fraction = Math.max(0, Math.min(((x - this.x[i]) * dx + (y - this.y[i]) * dy) / lengthSquared, 1));
+            double px = this.x[i] + dx * fraction - x;
+            double py = this.y[i] + dy * fraction - y;
+            if (px * px + py * py < minDistance) {
+                minDistance = px * px + py * py;
+                best = this.distance[i] + (this.distance[i + 1] - this.distance[i]) * fraction;
+            }
+        }
+        return best;
+    }
+
+    private double getDistanceSquared(int index, double x, double y) {
+        double dx = this.x[index] - x;
+        double dy = this.y[index] - y;
+        return dx * dx + dy * dy;
+    }
+
+    // Index of the segment that contains the given arc length
+    private int getIndex(double distance) {
+        int low = 0;
+        int high = this.distance.length - 1;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (this.distance[mid] <= distance)
+                low = mid;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private double getFraction(int index, double distance) {
+        double length = this.distance[index + 1] - this.distance[index];
+        if (length == 0)
+            return 0;
+        return Math.max(0, Math.min((distance - this.distance[index]) / length, 1));
+    }
+}
@@ -12,12 +12,16 @@ import java.util.function.Function;
 @SuppressWarnings(value = "unused")
 public class BezierCurve {
     private static final double DX = 0.0001;
+    private static final int ARC_LENGTH_SAMPLES = 1000;
 
     private final List<Translation2d> waypoints;
     private final double differentBetweenTs;
 
     private final Constants constants;
 
+    private int revision = 0;
+    private ArcLengthTable arcLengthTable;
+
     public BezierCurve(Constants constants, List<Translation2d> waypoints) {
         this.constants = constants;
         this.waypoints = waypoints;
@@ -50,10 +54,12 @@ public class BezierCurve {
         Translation2d vector = new Translation2d(1 - constants.errorCorrectorPower, this.getAngle(state.t))
                 .plus(state.pose.getTranslation().minus(robot.getTranslation()).times(constants.errorCorrectorPower));
 
-        double curvature = 1 / Math.abs(this.getCurvatureRadius(state.t));
-        velocity = Math.min(constants.maxVel - Math.min(curvature, 3.5), velocity);
+        return new Pose2d(new Translation2d(this.limitVelocity(state.t, velocity), vector.getAngle()), Rotation2d.fromDegrees(omega));
+    }
 
-        return new Pose2d(new Translation2d(velocity, vector.getAngle()), Rotation2d.fromDegrees(omega));
+    public double limitVelocity(double t, double velocity) {
+        double curvature = 1 / Math.abs(this.getCurvatureRadius(t));
+        return Math.min(constants.maxVel - Math.min(curvature, 3.5), velocity);
     }
 
     public double getX(double t) {
@@ -168,6 +174,20 @@ public class BezierCurve {
 
     public void setWaypoint(int index, Translation2d waypoint) {
         this.waypoints.set(index, waypoint);
+        this.revision++;
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+
+    public ArcLengthTable getArcLengthTable() {
+        ArcLengthTable table = this.arcLengthTable;
+        if (table == null || table.getRevision() != this.revision) {
+            table = new ArcLengthTable(this, ARC_LENGTH_SAMPLES);
+            this.arcLengthTable = table;
+        }
+        return table;
     }
 
     public double getDifferentBetweenTs() {
@@ -1,8 +1,14 @@
 package beziercurve;
 
-import beziercurve.pid.PIDPreset;
 import beziercurve.pid.TrapezoidProfile;
+import beziercurve.telemetry.TelemetryBuffer;
+import beziercurve.telemetry.TelemetryFileWriter;
+import beziercurve.telemetry.TelemetryLog;
+import beziercurve.telemetry.TelemetryReplay;
 import gui.Frame;
+import gui.Grid;
+import gui.Hud;
+import gui.ImageCache;
 import gui.types.draw.DrawCentered;
 import gui.types.field.ZeroCenter;
 import math.MathUtil;
@@ -10,125 +16,292 @@ import math.geometry.Dimension2d;
 import math.geometry.Pose2d;
 import math.geometry.Rotation2d;
 import math.geometry.Translation2d;
+import util.LatencyHistogram;
+import util.SimulatedClock;
 
-import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
 
 public class BezierCurveGUI extends Frame implements ZeroCenter, DrawCentered {
     private static final boolean IS_CHARGED_UP_FIELD = true;
 
-    private static final double DEFAULT_MAX_VALUE = 8.27;
-    private static final Dimension2d DIMENSION = new Dimension2d(1713, 837);
-    private static final double PIXELS_IN_ONE_UNIT = convertMaxValueToPixels(DEFAULT_MAX_VALUE);
+    private static final double PIXELS_IN_ONE_UNIT = FieldView.convertMaxValueToPixels(FieldView.MAX_VALUE);
 
-    private static final double FPS = 20;
-    private static final double ROBOT_WIDTH = 0.91;
+    private static final int HUD_LINES = 14;
+
+    private static final double DEFAULT_FPS = 60;
+    private static final double MIN_TIME_SCALE = 1 / 8d;
+    private static final double MAX_TIME_SCALE = 64;
+    private static final double CONTROL_FREQUENCY = SimulationSetup.CONTROL_FREQUENCY;
+    private static final int VISION_PERIOD_TICKS = 5;
+    private static final double VISION_STD_DEV = 0.05;
 
     private final BezierCurve bezierCurve;
+    private final CurvePath curvePath;
     private final Robot robot;
 
     private final BezierFollower bezierFollower;
+    private final ControlScheduler controlScheduler;
+    private final ControlScheduler renderScheduler;
 
-    private double maxValue = DEFAULT_MAX_VALUE;
+    private final SimulatedClock clock = new SimulatedClock();
+    private volatile SimulationSnapshot snapshot;
+    private volatile double timeScale = 1;
+    private double pendingSteps = 0;
+    private long steps = 0;
 
-    public BezierCurveGUI() {
-        super("Bezier Curve", DIMENSION, PIXELS_IN_ONE_UNIT);
-
-        this.bezierCurve = new BezierCurve(new BezierCurve.Constants(4.5, 4.5, 0.7),
-                new Translation2d(2, -3),
-                new Translation2d(-5, 2),
-                new Translation2d(-2, 1),
-                new Translation2d(-6, -2),
-                new Translation2d(3, 3),
-                new Translation2d(7, -1)
-        );
-        this.robot = new Robot(new Pose2d(this.bezierCurve.getStartPoint(), Rotation2d.fromDegrees(0)),
-                new Robot.Constants(5, 1 / FPS));
-
-        this.bezierFollower = new BezierFollower(this.bezierCurve, this.robot,
-                new BezierFollower.Constants(160, 0,
-                        new PIDPreset(3.5, 0, 0, 1, 10),
-                        new PIDPreset(5, 0, 0, 10, 100)));
+    private final ImageCache images = new ImageCache();
+    private final Hud hud = new Hud(HUD_LINES);
+    private Grid grid;
+
+    private final PoseEstimator poseEstimator;
+    private final Random visionNoise = new Random(0);
+
+    private final TelemetryBuffer telemetry = new TelemetryBuffer(1 << 16);
+    private TelemetryFileWriter telemetryWriter;
+    private Path lastRecording;
+
+    private volatile TelemetryReplay replay;
+    private double replayTime;
+
+    private volatile double maxValue = FieldView.MAX_VALUE;
+
+    public BezierCurveGUI(Path replay) {
+        super("Bezier Curve", FieldView.DIMENSION, PIXELS_IN_ONE_UNIT);
+
+        this.bezierCurve = SimulationSetup.createCurve();
+        this.curvePath = new CurvePath(this.bezierCurve, () -> this.invalidateLayer(FieldView.PATH_LAYER));
+        this.robot = SimulationSetup.createRobot(this.bezierCurve);
+
+        this.bezierFollower = new BezierFollower(this.bezierCurve, this.robot, SimulationSetup.FOLLOWER_CONSTANTS);
+
+        this.poseEstimator = new PoseEstimator(this.robot.getPosition(), new PoseEstimator.Constants(0.1, 0.02, VISION_STD_DEV));
+
+        // The simulation runs on its own clock, so it can run faster or slower than real time
+        this.robot.setClock(this.clock);
+        this.bezierFollower.setClock(this.clock);
+        this.snapshot = SimulationSnapshot.of(this.robot.getPosition(), this.captureFollower());
+
+        this.controlScheduler = new ControlScheduler(this::controlTick, CONTROL_FREQUENCY, ControlScheduler.OverrunPolicy.SKIP);
+        this.renderScheduler = new ControlScheduler(this::renderFrame, getDisplayRate(), ControlScheduler.OverrunPolicy.SKIP,
+                "Render", Thread.NORM_PRIORITY);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.print(this.bezierFollower.getTiming().getReport());
+            this.stopRecording();
+        }));
 
         this.bezierFollower.start();
+        this.controlScheduler.start();
+        if (replay != null)
+            this.startReplay(replay);
         this.start();
     }
 
-    public void drawBackground() {
-        if (IS_CHARGED_UP_FIELD)
-            this.drawImage(new ImageIcon("src/beziercurve/Field.png").getImage(), 0, 0, DIMENSION.getX(), DIMENSION.getY());
-        else
-            this.drawGrid();
+    public BezierCurveGUI() {
+        this(null);
+    }
+
+    /**
+     * Runs as many simulation steps as the time scale has accumulated, and publishes a snapshot for
+     * the renderer if any ran.
+     */
+    private void controlTick() {
+        this.pendingSteps += this.timeScale;
+        int count = (int) this.pendingSteps;
+        if (count == 0)
+            return;
+
+        this.pendingSteps -= count;
+        for (int i = 0; i < count; i++) {
+            this.simulationStep();
+        }
+        this.snapshot = this.snapshot.next(this.steps, this.clock.getSeconds(), this.robot.getPosition(), this.robot.getVelocity(),
+                this.robot.getAcceleration(), this.bezierFollower.getState().t(), this.captureFollower());
+    }
+
+    /**
+     * @return A copy of what the follower is aiming at, taken on the control thread.
+     */
+    private SimulationSnapshot.FollowerSnapshot captureFollower() {
+        BezierFollower.Mode mode = this.bezierFollower.getMode();
+        BezierCurve.State state = this.bezierFollower.getState();
+
+        Translation2d lookahead = null;
+        Translation2d[] prediction = null;
+        if (mode == BezierFollower.Mode.PURE_PURSUIT) {
+            lookahead = this.bezierFollower.getPurePursuit().getLookahead();
+        } else if (mode == BezierFollower.Mode.MODEL_PREDICTIVE) {
+            ModelPredictiveController controller = this.bezierFollower.getModelPredictiveController();
+            prediction = new Translation2d[controller.getHorizon() + 1];
+            for (int i = 0; i < prediction.length; i++) {
+                prediction[i] = controller.getPredictedPosition(new Translation2d(), i);
+            }
+        }
+
+        PoseEstimator poseEstimator = this.bezierFollower.getPoseEstimator();
+        return new SimulationSnapshot.FollowerSnapshot(mode, state,
+                this.bezierCurve.getCurvatureRadius(state.t()), this.bezierCurve.getAngle(state.t()),
+                this.bezierFollower.getPidController().getSetpoint().position,
+                this.bezierFollower.getOmegaController().getSetpoint().position,
+                lookahead, prediction,
+                poseEstimator != null ? poseEstimator.getEstimatedPosition() : null,
+                poseEstimator != null ? poseEstimator.getPositionStdDev() : 0);
+    }
+
+    private void simulationStep() {
+        this.clock.advance(1 / CONTROL_FREQUENCY);
+        this.steps++;
+
+        TelemetryReplay replay = this.replay;
+        if (replay == null) {
+            this.bezierFollower.update();
+            if (this.steps % VISION_PERIOD_TICKS == 0) {
+                // A simulated vision fix, taken from the true pose, for the estimator if the follower uses it
+                this.bezierFollower.addVisionMeasurement(
+                        this.robot.getPosition().getX() + this.visionNoise.nextGaussian() * VISION_STD_DEV,
+                        this.robot.getPosition().getY() + this.visionNoise.nextGaussian() * VISION_STD_DEV);
+            }
+            return;
+        }
+
+        this.replayTime += 1 / CONTROL_FREQUENCY;
+        if (replay.applyAt(this.replayTime, this.robot) >= replay.getLog().size() - 1) {
+            this.replay = null;
+            this.bezierFollower.reset();
+        }
+    }
+
+    private void startReplay(Path path) {
+        try {
+            this.replayTime = 0;
+            this.replay = new TelemetryReplay(new TelemetryLog(path));
+            System.out.println("Replaying " + this.replay.getLog().size() + " records from " + path.toAbsolutePath());
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    public void drawBackground(SimulationSnapshot snapshot) {
+        this.drawLayer(FieldView.FIELD_LAYER, this::drawField);
 
         for (int i = 0; i < this.bezierCurve.getWaypoints().size() - 1; i++) {
             Color color = new Color(0, (int) (255 * (i / (this.bezierCurve.getWaypoints().size() - 1d))), 0);
-            Translation2d[] bezierPoints = this.bezierCurve.getBezierPoint(this.bezierFollower.getState().t(), i);
+            Translation2d[] bezierPoints = this.bezierCurve.getBezierPoint(snapshot.t(), i);
             this.drawConnectedPoints(color, bezierPoints);
             for (Translation2d bezierPoint : bezierPoints) {
                 this.fillPoint(bezierPoint.getX(), bezierPoint.getY(), convertPixelsToUnits(4), color);
             }
         }
 
-        for (double t = this.bezierCurve.getDifferentBetweenTs(); t < 1; t += this.bezierCurve.getDifferentBetweenTs()) {
-            this.drawRobotPose(this.bezierCurve.getLocation(t));
-        }
+        this.drawLayer(FieldView.PATH_LAYER, this::drawPath);
+    }
+
+    private void drawField() {
+        Dimension2d dimension = FieldView.DIMENSION;
+        if (IS_CHARGED_UP_FIELD)
+            this.drawImage(this.images.getImage(FieldView.FIELD_IMAGE, dimension.getX(), dimension.getY()), 0, 0, dimension.getX(), dimension.getY());
+        else
+            this.drawGrid();
+    }
+
+    private void drawPath() {
+        this.drawShape(this.curvePath.getShape(convertPixelsToUnits(1)), convertPixelsToUnits(4), Color.RED);
 
         for (Translation2d waypoint : this.bezierCurve.getWaypoints()) {
             this.drawWaypoint(waypoint);
         }
     }
 
-    public void displayRobot() {
-        BezierCurve.State state = this.bezierFollower.getState();
+    public void displayRobot(SimulationSnapshot snapshot, Pose2d pose) {
+        SimulationSnapshot.FollowerSnapshot follower = snapshot.follower();
 
-        Translation2d setpoint = this.robot.getPosition().getTranslation()
-                .plus(new Translation2d(this.bezierFollower.getPidController().getSetpoint().position,
-                        this.robot.getVelocity().getTranslation().getAngle()));
+        Translation2d setpoint = pose.getTranslation()
+                .plus(new Translation2d(follower.driveSetpoint(), snapshot.velocity().getTranslation().getAngle()));
         this.fillPoint(setpoint.getX(), setpoint.getY(), convertPixelsToUnits(5), Color.GREEN);
 
-        double curvatureRadius = this.bezierCurve.getCurvatureRadius(state.t());
-        Translation2d curvature = state.pose().getTranslation()
+        double curvatureRadius = follower.curvatureRadius();
+        Translation2d curvature = follower.state().pose().getTranslation()
                 .plus(new Translation2d(
                         curvatureRadius,
-                        this.bezierCurve.getAngle(state.t()).plus(Rotation2d.fromDegrees(curvatureRadius > 0 ? -90 : 90))
+                        follower.curveAngle().plus(Rotation2d.fromDegrees(curvatureRadius > 0 ? -90 : 90))
                 ));
         this.drawPoint(curvature.getX(), curvature.getY(), Math.abs(curvatureRadius), Color.BLUE);
 
-        Translation2d omegaSetpoint = this.robot.getPosition().getTranslation()
-                .plus(new Translation2d(2 * ROBOT_WIDTH,
-                        Rotation2d.fromDegrees(this.bezierFollower.getOmegaController().getSetpoint().position)));
+        Translation2d omegaSetpoint = pose.getTranslation()
+                .plus(new Translation2d(2 * SimulationSetup.ROBOT_WIDTH, Rotation2d.fromDegrees(follower.omegaSetpoint())));
         this.fillPoint(omegaSetpoint.getX(), omegaSetpoint.getY(), convertPixelsToUnits(5), Color.GREEN);
 
-        this.drawImage(new ImageIcon("src/beziercurve/Robot.png").getImage(),
-                this.robot.getPosition().getX(),
-                this.robot.getPosition().getY(),
-                ROBOT_WIDTH, ROBOT_WIDTH,
-                this.robot.getPosition().getRotation().getDegrees());
-    }
-
-    public void writeValues() {
-        String[] texts = {
-                "T: " + MathUtil.limitDot(this.bezierFollower.getState().t(), 4),
-                "Pose: (" + MathUtil.limitDot(this.robot.getPosition().getTranslation().getX(), 3) + ", "
-                        + MathUtil.limitDot(this.robot.getPosition().getTranslation().getY(), 3) + ")",
-                "Heading: " + MathUtil.limitDot(this.robot.getPosition().getRotation().getDegrees(), 3) + " Deg",
-                "Vector: (" + MathUtil.limitDot(this.robot.getVelocity().getTranslation().getX(), 3) + ", "
-                        + MathUtil.limitDot(this.robot.getVelocity().getTranslation().getY(), 3) + ")",
-                "Velocity: " + MathUtil.limitDot(this.robot.getVelocity().getTranslation().getNorm(), 3) + "m/s",
-                "Accelration: " + MathUtil.limitDot(this.robot.getAcceleration(), 3) + "m/s",
-                "Omega Velocity: " + MathUtil.limitDot(this.robot.getVelocity().getRotation().getDegrees(), 3) + " deg/s",
-                "Distance: " + MathUtil.limitDot(this.bezierCurve.getDistance(0, this.bezierFollower.getState().t()), 3) + " / " + MathUtil.limitDot(this.bezierCurve.getPathLength(), 3),
-                "Curvature Radius: " + MathUtil.limitDot(this.bezierCurve.getCurvatureRadius(this.bezierFollower.getState().t()), 3)
-        };
-
-        double size = convertPixelsToUnits(20);
-        double space = convertPixelsToUnits(10);
-        for (int i = 0; i < texts.length; i++) {
-            this.write(-this.maxValue + convertPixelsToUnits(5), (this.maxValue * ((double) DIMENSION.getY() / DIMENSION.getX()) - ((size + space) * (i + 1))), texts[i], size, Color.BLACK);
+        if (follower.lookahead() != null) {
+            Translation2d lookahead = follower.lookahead();
+            this.drawThinLine(pose.getTranslation(), lookahead, Color.MAGENTA);
+            this.fillPoint(lookahead.getX(), lookahead.getY(), convertPixelsToUnits(5), Color.MAGENTA);
+        } else if (follower.prediction() != null) {
+            // The prediction is relative to the robot, so it starts from where the robot is drawn
+            Translation2d[] prediction = new Translation2d[follower.prediction().length];
+            for (int i = 0; i < prediction.length; i++) {
+                prediction[i] = pose.getTranslation().plus(follower.prediction()[i]);
+            }
+            this.drawConnectedPoints(Color.MAGENTA, convertPixelsToUnits(2), prediction);
+        }
+
+        if (follower.estimate() != null) {
+            Pose2d estimate = follower.estimate();
+            this.drawPoint(estimate.getX(), estimate.getY(), Math.max(follower.estimateStdDev(), convertPixelsToUnits(3)), Color.ORANGE);
         }
+
+        int robotPixels = (int) convertUnits(SimulationSetup.ROBOT_WIDTH);
+        this.drawImage(this.images.getImage(FieldView.ROBOT_IMAGE, robotPixels, robotPixels),
+                pose.getX(),
+                pose.getY(),
+                SimulationSetup.ROBOT_WIDTH, SimulationSetup.ROBOT_WIDTH,
+                pose.getRotation().getDegrees());
+    }
+
+    public void writeValues(SimulationSnapshot snapshot) {
+        LatencyHistogram tick = this.bezierFollower.getTiming().get(FollowerTiming.Stage.TOTAL);
+        Pose2d pose = snapshot.pose();
+        Pose2d velocity = snapshot.velocity();
+        // The table is built once per curve revision, instead of integrating the curve every frame
+        ArcLengthTable arcLengthTable = this.bezierCurve.getArcLengthTable();
+
+        StringBuilder line = this.hud.edit(0).append("Mode: ").append(this.replay != null ? "REPLAY" : snapshot.follower().mode());
+        if (this.telemetryWriter != null)
+            line.append(" (Recording)");
+        if (snapshot.follower().estimate() != null)
+            line.append(" (Estimated)");
+        this.hud.edit(1).append("Time: ").append(MathUtil.limitDot(snapshot.time(), 2))
+                .append(" s (x").append(MathUtil.limitDot(this.timeScale, 3)).append(')');
+        this.hud.edit(2).append("T: ").append(MathUtil.limitDot(snapshot.t(), 4));
+        this.hud.edit(3).append("Pose: (").append(MathUtil.limitDot(pose.getX(), 3))
+                .append(", ").append(MathUtil.limitDot(pose.getY(), 3)).append(')');
+        this.hud.edit(4).append("Heading: ").append(MathUtil.limitDot(pose.getRotation().getDegrees(), 3)).append(" Deg");
+        this.hud.edit(5).append("Vector: (").append(MathUtil.limitDot(velocity.getX(), 3))
+                .append(", ").append(MathUtil.limitDot(velocity.getY(), 3)).append(')');
+        this.hud.edit(6).append("Velocity: ").append(MathUtil.limitDot(velocity.getTranslation().getNorm(), 3)).append("m/s");
+        this.hud.edit(7).append("Accelration: ").append(MathUtil.limitDot(snapshot.acceleration(), 3)).append("m/s");
+        this.hud.edit(8).append("Omega Velocity: ").append(MathUtil.limitDot(velocity.getRotation().getDegrees(), 3)).append(" deg/s");
+        this.hud.edit(9).append("Distance: ").append(MathUtil.limitDot(arcLengthTable.getDistance(snapshot.t()), 3))
+                .append(" / ").append(MathUtil.limitDot(arcLengthTable.getLength(), 3));
+        this.hud.edit(10).append("Curvature Radius: ").append(MathUtil.limitDot(snapshot.follower().curvatureRadius(), 3));
+        this.hud.edit(11).append("Control: ").append(this.controlScheduler.getTicks()).append(" ticks, ")
+                .append(this.controlScheduler.getMissedDeadlines()).append(" missed, ")
+                .append(this.controlScheduler.getSkippedTicks()).append(" skipped");
+        this.hud.edit(12).append("Jitter: ").append(MathUtil.limitDot(this.controlScheduler.getAverageJitterMillis(), 3)).append(" ms avg, ")
+                .append(MathUtil.limitDot(this.controlScheduler.getMaxJitterMillis(), 3)).append(" ms max");
+        this.hud.edit(13).append("Tick: ").append(MathUtil.limitDot(tick.getMillisAtPercentile(50), 3)).append(" / ")
+                .append(MathUtil.limitDot(tick.getMillisAtPercentile(99), 3)).append(" / ")
+                .append(MathUtil.limitDot(tick.getMillisAtPercentile(99.9), 3)).append(" / ")
+                .append(MathUtil.limitDot(tick.getMaxNanos() / 1e6, 3)).append(" ms (p50 / p99 / p99.9 / max)");
+
+        double space = convertPixelsToUnits(10);
+        this.write(-this.maxValue + convertPixelsToUnits(5), this.maxValue * ((double) FieldView.DIMENSION.getY() / FieldView.DIMENSION.getX()) - space,
+                this.hud, convertPixelsToUnits(20), space, Color.BLACK);
     }
 
     @Override
@@ -138,6 +311,7 @@ public class BezierCurveGUI extends Frame implements ZeroCenter, DrawCentered {
         for (int i = this.bezierCurve.getWaypoints().size() - 1; i >= 0; i--) {
             if (this.bezierCurve.getWaypoints().get(i).getDistance(mouseLocation) <= convertPixelsToUnits(20)) {
                 this.bezierCurve.setWaypoint(i, mouseLocation);
+                this.invalidateLayer(FieldView.PATH_LAYER);
                 break;
             }
         }
@@ -154,47 +328,87 @@ public class BezierCurveGUI extends Frame implements ZeroCenter, DrawCentered {
             this.bezierFollower.reset();
         } else if (e.getKeyChar() == 't' || e.getKeyChar() == 'T') {
             this.bezierFollower.setRunning(!this.bezierFollower.isRunning());
+        } else if (e.getKeyChar() == 'p' || e.getKeyChar() == 'P') {
+            BezierFollower.Mode[] modes = BezierFollower.Mode.values();
+            this.bezierFollower.setMode(modes[(this.bezierFollower.getMode().ordinal() + 1) % modes.length]);
+            this.bezierFollower.getTiming().reset();
+        } else if (e.getKeyChar() == 'l' || e.getKeyChar() == 'L') {
+            System.out.print(this.bezierFollower.getTiming().getReport());
+        } else if (e.getKeyChar() == 'c' || e.getKeyChar() == 'C') {
+            if (this.telemetryWriter == null)
+                this.startRecording();
+            else
+                this.stopRecording();
+        } else if (e.getKeyChar() == 'e' || e.getKeyChar() == 'E') {
+            this.bezierFollower.setPoseEstimator(this.bezierFollower.getPoseEstimator() == null ? this.poseEstimator : null);
+        } else if (e.getKeyChar() == '+' || e.getKeyChar() == '=') {
+            this.timeScale = Math.min(this.timeScale * 2, MAX_TIME_SCALE);
+        } else if (e.getKeyChar() == '-') {
+            this.timeScale = Math.max(this.timeScale / 2, MIN_TIME_SCALE);
+        } else if (e.getKeyChar() == 'v' || e.getKeyChar() == 'V') {
+            this.stopRecording();
+            if (this.lastRecording != null)
+                this.startReplay(this.lastRecording);
         }
     }
 
+    private synchronized void startRecording() {
+        Path path = Path.of("telemetry-" + System.currentTimeMillis() + ".bin");
+        try {
+            this.telemetryWriter = new TelemetryFileWriter(this.telemetry, path);
+            this.bezierFollower.setTelemetry(this.telemetry);
+            this.lastRecording = path;
+            System.out.println("Recording telemetry to " + path.toAbsolutePath());
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    private synchronized void stopRecording() {
+        if (this.telemetryWriter == null)
+            return;
+
+        this.bezierFollower.setTelemetry(null);
+        try {
+            this.telemetryWriter.close();
+            System.out.println("Recorded " + this.telemetryWriter.getWritten() + " bytes of telemetry, "
+                    + this.telemetry.getDropped() + " records dropped");
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+        this.telemetryWriter = null;
+    }
+
     @Override
     public void mouseWheelMoved(MouseWheelEvent e) {
         this.maxValue += e.getPreciseWheelRotation();
     }
 
     public void start() {
-        double t = 0;
-        int direction = 1;
-
-        while (true) {
-            this.setPixelsInOneUnit(convertMaxValueToPixels(this.maxValue));
+        this.renderScheduler.start();
+    }
 
-            this.clearFrame();
-            this.drawBackground();
-            this.bezierFollower.update();
-            this.displayRobot();
-            this.writeValues();
-            this.repaint();
-
-            t += this.bezierCurve.getDifferentBetweenTs() * direction;
-            if (t > 1) {
-                t = 1;
-                direction = -1;
-            } else if (t < 0) {
-                t = 0;
-                direction = 1;
-            }
-            try {
-                Thread.sleep((long) (1000 / FPS));
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
-        }
+    /**
+     * Draws the latest snapshot of the simulation, with the robot moved between its last two poses.
+     */
+    private void renderFrame() {
+        SimulationSnapshot snapshot = this.snapshot;
+        Pose2d pose = snapshot.getPose(System.nanoTime());
+
+        this.setPixelsInOneUnit(FieldView.convertMaxValueToPixels(this.maxValue));
+        this.clearFrame();
+        this.drawBackground(snapshot);
+        this.displayRobot(snapshot, pose);
+        this.writeValues(snapshot);
+        this.publish();
+        this.repaint();
     }
 
-    private void drawRobotPose(Translation2d pose) {
-        this.fillPoint(pose.getX(), pose.getY(), convertPixelsToUnits(2), Color.RED);
-        this.drawPoint(pose.getX(), pose.getY(), convertPixelsToUnits(2), new Color(20, 20, 20));
+    private static double getDisplayRate() {
+        if (GraphicsEnvironment.isHeadless())
+            return DEFAULT_FPS;
+        int refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+        return refreshRate != DisplayMode.REFRESH_RATE_UNKNOWN ? refreshRate : DEFAULT_FPS;
     }
 
     private void drawWaypoint(Translation2d waypoint) {
@@ -202,34 +416,18 @@ public class BezierCurveGUI extends Frame implements ZeroCenter, DrawCentered {
         this.drawPoint(waypoint.getX(), waypoint.getY(), convertPixelsToUnits(7), new Color(200, 200, 200));
     }
 
+    /**
+     * Draws the grid from paths that are only built again when the zoom changes.
+     */
     private void drawGrid() {
-        for (double i = (int) -Math.floor(this.maxValue); i <= this.maxValue; i += 0.25) {
-            this.drawThinLine(i, this.getDimensionWithUnits().getY() / -2, i, this.getDimensionWithUnits().getY() / 2,
-                    Math.floor(i * 10) / 10d % 1 == 0 ? new Color(60, 60, 60) : new Color(230, 230, 230));
-        }
-
-        for (double i = (int) -Math.floor(this.maxValue); i <= this.maxValue; i += 0.25) {
-            this.drawThinLine(this.getDimensionWithUnits().getX() / -2, i, this.getDimensionWithUnits().getX() / 2, i,
-                    Math.floor(i * 10) / 10d % 1 == 0 ? new Color(60, 60, 60) : new Color(230, 230, 230));
-        }
-
-        this.drawLine(0, this.getDimensionWithUnits().getY() / -2, 0, this.getDimensionWithUnits().getY() / 2, convertPixelsToUnits(5), Color.BLACK);
-        this.drawLine(this.getDimensionWithUnits().getX() / -2, 0, this.getDimensionWithUnits().getX() / 2, 0, convertPixelsToUnits(5), Color.BLACK);
-
+        Translation2d dimension = this.getDimensionWithUnits();
         double textSize = convertPixelsToUnits(20);
-        for (int i = 0; i <= this.maxValue; i += this.maxValue / 10) {
-            this.write(0, i - (textSize / 2), " " + i, textSize, Color.BLACK);
-            if (i != 0)
-                this.write(0, -i - (textSize / 2), -i + "", textSize, Color.BLACK);
+        Grid grid = this.grid;
+        if (grid == null || !grid.fits(dimension.getX() / 2, dimension.getY() / 2, textSize)) {
+            grid = new Grid(dimension.getX() / 2, dimension.getY() / 2, FieldView.GRID_SPACING, Math.max(1, (int) (this.maxValue / 10)), textSize);
+            this.grid = grid;
         }
-        for (int i = 0; i <= this.maxValue; i += this.maxValue / 10 ) {
-            this.write(i - (textSize / 2), -textSize, " " + i, textSize, Color.BLACK);
-            if (i != 0)
-                this.write(-i - (textSize / 2), -textSize, -i + "", textSize, Color.BLACK);
-        }
-    }
 
-    private static double convertMaxValueToPixels(double maxValue) {
-        return (DIMENSION.getX() / maxValue) / 2;
+        this.drawGrid(grid, FieldView.GRID_MINOR_COLOR, FieldView.GRID_MAJOR_COLOR);
     }
 }
@@ -2,10 +2,12 @@ package beziercurve;
 
 import beziercurve.pid.PIDPreset;
 import beziercurve.pid.ProfiledPIDController;
-import beziercurve.pid.TrapezoidProfile;
+import beziercurve.telemetry.TelemetryBuffer;
+import beziercurve.telemetry.TelemetryRecord;
 import math.geometry.Pose2d;
 import math.geometry.Rotation2d;
 import math.geometry.Translation2d;
+import util.Clock;
 
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -20,11 +22,27 @@ public class BezierFollower {
     private final ProfiledPIDController pidController;
     private final ProfiledPIDController omegaController;
 
+    private final PurePursuit purePursuit;
+    private final ModelPredictiveController modelPredictiveController;
+    private final PathProjection projection;
+    private PathSchedule pathSchedule;
+
+    private final FollowerTiming timing = new FollowerTiming();
+
+    private PoseEstimator poseEstimator;
+
+    private TelemetryBuffer telemetry;
+    private final double[] telemetryRecord = new double[TelemetryRecord.SIZE];
+    private Clock clock = Clock.SYSTEM;
+    private long startTime = this.clock.nanoTime();
+    private Mode mode = Mode.CLOSEST_POINT;
+
     private BezierCurve.State state = new BezierCurve.State(new Pose2d(), -1);
 
     private boolean isRunning = true;
+    private double maxVelocity = Double.POSITIVE_INFINITY;
 
-    private long lastUpdate = 0;
+    private long lastUpdate = this.clock.nanoTime();
 
     public BezierFollower(BezierCurve bezierCurve, Robot robot, Constants constants) {
         this.bezierCurve = bezierCurve;
@@ -32,27 +50,50 @@ public class BezierFollower {
 
         this.constants = constants;
 
-        this.pidController = new ProfiledPIDController(constants.drivePreset.getkP(), constants.drivePreset.getkI(), constants.drivePreset.getkD(),
-                new TrapezoidProfile.Constraints(constants.drivePreset.getMaxVel(), constants.drivePreset.getMaxAccel()));
-        this.omegaController = new ProfiledPIDController(constants.omegaPreset.getkP(), constants.omegaPreset.getkI(), constants.omegaPreset.getkD(),
-                new TrapezoidProfile.Constraints(constants.omegaPreset.getMaxVel(), constants.omegaPreset.getMaxAccel()));
+        this.pidController = constants.drivePreset.createController();
+        this.omegaController = constants.omegaPreset.createController();
         this.omegaController.enableContinuousInput(0, 360);
+
+        this.purePursuit = new PurePursuit(bezierCurve, constants.purePursuit);
+        this.modelPredictiveController = new ModelPredictiveController(bezierCurve, robot.getConstants(), constants.modelPredictive);
+        this.projection = new PathProjection(bezierCurve, constants.purePursuit.searchWindow());
     }
 
     public void start() {
+        this.startTime = this.clock.nanoTime();
         this.pidController.reset(
-                this.bezierCurve.getDistance(0, this.bezierCurve.getClosestPoint(this.robot.getPosition()).t()),
+                this.bezierCurve.getDistance(0, this.bezierCurve.getClosestPoint(this.getPose()).t()),
                 0);
-        this.omegaController.reset(this.robot.getPosition().getRotation().getDegrees(), 0);
+        this.omegaController.reset(this.getPose().getRotation().getDegrees(), 0);
     }
 
-    public void update() {
-        this.state = this.getClosestState();
+    public synchronized void update() {
+        long start = System.nanoTime();
+        this.state = switch (this.mode) {
+            case CLOSEST_POINT -> this.getClosestState();
+            case PURE_PURSUIT -> this.getPurePursuitState();
+            case MODEL_PREDICTIVE -> this.getModelPredictiveState();
+            case FEEDFORWARD -> this.getProjectedState();
+        };
+        long stageEnd = this.recordStage(FollowerTiming.Stage.CLOSEST_STATE, start);
 
         if (this.isRunning) {
-            Pose2d velocity = this.bezierCurve.getVelocity(state, this.robot.getPosition(), this.calculateVelocity(), this.calculateOmega());
+            // A plan's speed cap keeps the robot to the timing it was planned with
+            double speed = Math.min(this.calculateVelocity(), this.maxVelocity);
+            stageEnd = this.recordStage(FollowerTiming.Stage.CALCULATE_VELOCITY, stageEnd);
+            double omega = this.calculateOmega();
+            stageEnd = this.recordStage(FollowerTiming.Stage.CALCULATE_OMEGA, stageEnd);
+
+            Pose2d velocity = switch (this.mode) {
+                case CLOSEST_POINT -> this.bezierCurve.getVelocity(state, this.getPose(), speed, omega);
+                case PURE_PURSUIT -> this.purePursuit.calculate(this.getPose().getTranslation(),
+                        this.bezierCurve.limitVelocity(this.state.t(), speed), omega);
+                case MODEL_PREDICTIVE -> this.modelPredictiveController.calculate(this.getPose(), this.robot.getVelocity(),
+                        this.bezierCurve.limitVelocity(this.state.t(), speed), omega);
+                case FEEDFORWARD -> this.calculateFeedforwardVelocity(speed, omega);
+            };
 
-            double lastUpdate = (System.currentTimeMillis() - this.lastUpdate) / 1000d;
+            double lastUpdate = (this.clock.nanoTime() - this.lastUpdate) / 1e9;
             double velocityDiff = velocity.getTranslation().getNorm() - this.robot.getVelocity().getTranslation().getNorm();
             if (Math.abs(velocityDiff) / lastUpdate >= this.bezierCurve.getConstants().maxAccel()) {
                 velocity = new Pose2d(
@@ -62,19 +103,136 @@ public class BezierFollower {
                             velocity.getTranslation().getAngle()),
                         velocity.getRotation());
             }
+            stageEnd = this.recordStage(FollowerTiming.Stage.GET_VELOCITY, stageEnd);
 
+            Rotation2d heading = this.robot.getPosition().getRotation();
             this.robot.drive(velocity);
+            if (this.poseEstimator != null) {
+                this.poseEstimator.predict(this.robot.getVelocity(), heading, this.robot.getConstants().period());
+            }
+            stageEnd = this.recordStage(FollowerTiming.Stage.DRIVE, stageEnd);
+        }
+
+        this.timing.record(FollowerTiming.Stage.TOTAL, stageEnd - start);
+        this.lastUpdate = this.clock.nanoTime();
+
+        if (this.telemetry != null) {
+            this.publishTelemetry(this.lastUpdate);
+        }
+    }
+
+    private void publishTelemetry(long time) {
+        Pose2d position = this.robot.getPosition();
+        Pose2d velocity = this.robot.getVelocity();
+
+        this.telemetryRecord[TelemetryRecord.TIME] = (time - this.startTime) / 1e9;
+        this.telemetryRecord[TelemetryRecord.T] = this.state.t();
+        this.telemetryRecord[TelemetryRecord.X] = position.getX();
+        this.telemetryRecord[TelemetryRecord.Y] = position.getY();
+        this.telemetryRecord[TelemetryRecord.HEADING] = position.getRotation().getDegrees();
+        this.telemetryRecord[TelemetryRecord.VELOCITY_X] = velocity.getX();
+        this.telemetryRecord[TelemetryRecord.VELOCITY_Y] = velocity.getY();
+        this.telemetryRecord[TelemetryRecord.OMEGA] = velocity.getRotation().getDegrees();
+        this.telemetryRecord[TelemetryRecord.DRIVE_SETPOINT] = this.pidController.getSetpoint().position;
+        this.telemetryRecord[TelemetryRecord.OMEGA_SETPOINT] = this.omegaController.getSetpoint().position;
+        this.telemetryRecord[TelemetryRecord.DRIVE_ERROR] = this.pidController.getPositionError();
+        this.telemetryRecord[TelemetryRecord.OMEGA_ERROR] = this.omegaController.getPositionError();
+        this.telemetryRecord[TelemetryRecord.CROSS_TRACK_ERROR] = position.getTranslation().getDistance(this.state.pose().getTranslation());
+        this.telemetry.publish(this.telemetryRecord);
+    }
+
+    /**
+     * Measures the follower's time, and its controllers', with the given clock, which restarts the
+     * time of the run.
+     *
+     * @param clock The clock, {@link Clock#SYSTEM} by default.
+     */
+    public synchronized void setClock(Clock clock) {
+        this.clock = clock;
+        this.lastUpdate = clock.nanoTime();
+        this.startTime = clock.nanoTime();
+        this.pidController.setClock(clock);
+        this.omegaController.setClock(clock);
+    }
+
+    /**
+     * Publishes a record of every following tick to the given buffer, or stops publishing if null.
+     *
+     * @param telemetry The buffer to publish to.
+     */
+    public synchronized void setTelemetry(TelemetryBuffer telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Follows the path with the estimator's pose instead of the robot's true one. The estimator is
+     * predicted with the robot's velocity after every drive; position fixes are added with
+     * {@link #addVisionMeasurement(double, double)}.
+     *
+     * @param poseEstimator The estimator to follow with, or null to use the true pose.
+     */
+    public synchronized void setPoseEstimator(PoseEstimator poseEstimator) {
+        this.poseEstimator = poseEstimator;
+        if (poseEstimator != null) {
+            poseEstimator.reset(this.robot.getPosition());
+        }
+    }
+
+    public PoseEstimator getPoseEstimator() {
+        return poseEstimator;
+    }
+
+    /**
+     * Corrects the estimator with a position fix, under the same lock as {@link #update()} and
+     * {@link #setPoseEstimator(PoseEstimator)}. Does nothing when there is no estimator.
+     *
+     * @param x The measured x position, in meters.
+     * @param y The measured y position, in meters.
+     */
+    public synchronized void addVisionMeasurement(double x, double y) {
+        if (this.poseEstimator != null) {
+            this.poseEstimator.addPositionMeasurement(x, y);
         }
+    }
+
+    /**
+     * @return The pose the follower acts on, estimated if there is an estimator and measured otherwise.
+     */
+    private Pose2d getPose() {
+        return this.poseEstimator != null ? this.poseEstimator.getEstimatedPosition() : this.robot.getMeasuredPosition();
+    }
 
-        this.lastUpdate = System.currentTimeMillis();
+    private long recordStage(FollowerTiming.Stage stage, long stageStart) {
+        long now = System.nanoTime();
+        this.timing.record(stage, now - stageStart);
+        return now;
     }
 
     public double calculateVelocity() {
+        if (this.mode == Mode.PURE_PURSUIT) {
+            return this.pidController.calculate(this.purePursuit.getProjectedDistance(), this.bezierCurve.getArcLengthTable().getLength());
+        } else if (this.mode == Mode.MODEL_PREDICTIVE) {
+            return this.pidController.calculate(this.modelPredictiveController.getProjectedDistance(), this.bezierCurve.getArcLengthTable().getLength());
+        } else if (this.mode == Mode.FEEDFORWARD) {
+            return this.pidController.calculate(this.projection.getDistance(), this.getPathSchedule().getLength());
+        }
         return this.pidController.calculate(this.bezierCurve.getDistance(this.state.t()), this.bezierCurve.getPathLength());
     }
 
     public double calculateOmega() {
-        return this.omegaController.calculate(this.robot.getPosition().getRotation().getDegrees(), this.constants.endHeading);
+        return this.omegaController.calculate(this.getPose().getRotation().getDegrees(), this.constants.endHeading);
+    }
+
+    /**
+     * @param maxVelocity The fastest the follower may drive along the curve, in meters per second,
+     *     below the curve's own limits. Infinite by default.
+     */
+    public void setMaxVelocity(double maxVelocity) {
+        this.maxVelocity = maxVelocity;
+    }
+
+    public double getMaxVelocity() {
+        return maxVelocity;
     }
 
     public void setRunning(boolean running) {
@@ -85,13 +243,91 @@ public class BezierFollower {
         return isRunning;
     }
 
+    public Mode getMode() {
+        return mode;
+    }
+
+    public synchronized void setMode(Mode mode) {
+        this.mode = mode;
+        this.purePursuit.reset();
+        this.modelPredictiveController.reset();
+        this.projection.reset();
+    }
+
+    public PurePursuit getPurePursuit() {
+        return purePursuit;
+    }
+
+    public FollowerTiming getTiming() {
+        return timing;
+    }
+
+    public ModelPredictiveController getModelPredictiveController() {
+        return modelPredictiveController;
+    }
+
+    private BezierCurve.State getPurePursuitState() {
+        double t = this.purePursuit.update(this.getPose().getTranslation(), this.robot.getVelocity().getTranslation().getNorm());
+        return new BezierCurve.State(this.bezierCurve.getPosition(t), t);
+    }
+
+    /**
+     * Returns the velocity along the path's tangent at the middle of the next tick, at the requested
+     * speed, plus a cross-track correction whose gain comes from the path schedule. The speed is fed
+     * forward from the profile. The path's heading rate, the curvature times the speed, is fed
+     * forward by looking the tangent up half a tick ahead, which turns it by half the tick's turn.
+     * Unlike adding that term to the tangent at the robot, the lookup keeps driving forward near a
+     * cusp, where the tangent turns faster than the limited curvature says.
+     */
+    private Pose2d calculateFeedforwardVelocity(double feedbackSpeed, double feedbackOmega) {
+        PathSchedule schedule = this.getPathSchedule();
+        double distance = this.projection.getDistance();
+
+        double speed = feedbackSpeed + this.pidController.getSetpoint().velocity;
+        speed = Math.min(Math.min(speed, schedule.getMaxVelocity(distance)), this.maxVelocity);
+
+        // The chord the robot drives over the tick points along the tangent at the middle of the tick
+        double period = this.robot.getConstants().period();
+        double angle = schedule.getTangentAngle(distance + Math.max(speed, 0) * period / 2);
+
+        ArcLengthTable table = this.bezierCurve.getArcLengthTable();
+        double gain = schedule.getCrossTrackGain(distance);
+        Translation2d velocity = new Translation2d(speed * Math.cos(angle), speed * Math.sin(angle))
+                .plus(new Translation2d(
+                        (table.getXAtDistance(distance) - this.getPose().getX()) * gain,
+                        (table.getYAtDistance(distance) - this.getPose().getY()) * gain));
+
+        double omega = feedbackOmega + this.omegaController.getSetpoint().velocity;
+        return new Pose2d(velocity, Rotation2d.fromDegrees(omega));
+    }
+
+    public PathSchedule getPathSchedule() {
+        PathSchedule schedule = this.pathSchedule;
+        if (schedule == null || schedule.getRevision() != this.bezierCurve.getRevision()) {
+            schedule = new PathSchedule(this.bezierCurve, this.constants.pathSchedule);
+            this.pathSchedule = schedule;
+        }
+        return schedule;
+    }
+
+    private BezierCurve.State getProjectedState() {
+        this.projection.update(this.getPose().getTranslation(), 2 * this.robot.getConstants().maxVel() * this.robot.getConstants().period());
+        double t = this.projection.getT();
+        return new BezierCurve.State(this.bezierCurve.getPosition(t), t);
+    }
+
+    private BezierCurve.State getModelPredictiveState() {
+        double t = this.modelPredictiveController.update(this.getPose().getTranslation());
+        return new BezierCurve.State(this.bezierCurve.getPosition(t), t);
+    }
+
     private BezierCurve.State getClosestState() {
         List<BezierCurve.State> points = new ArrayList<>();
         for (double t = 0; t <= 1; t = getNextT(t, this.bezierCurve.getDifferentBetweenTs())) {
             if (this.state.t() < 0 || Math.abs(this.state.t() - t) <= 0.3)
                 points.add(new BezierCurve.State(this.bezierCurve.getPosition(t), t));
         }
-        points.sort(Comparator.comparing(s -> this.robot.getPosition().getTranslation().getDistance(s.pose().getTranslation())));
+        points.sort(Comparator.comparing(s -> this.getPose().getTranslation().getDistance(s.pose().getTranslation())));
         return points.get(0);
     }
 
@@ -114,14 +350,38 @@ public class BezierFollower {
         return state;
     }
 
-    public void reset() {
+    public synchronized void reset() {
         this.state = new BezierCurve.State(new Pose2d(), 0);
         this.robot.setPosition(new Pose2d(this.bezierCurve.getStartPoint(), Rotation2d.fromDegrees(0)));
         this.robot.drive(new Pose2d());
         this.robot.setAngle(this.constants.startHeading);
+        this.robot.getPoseHistory().clear();
+        if (this.poseEstimator != null) {
+            this.poseEstimator.reset(this.robot.getPosition());
+        }
+        this.purePursuit.reset();
+        this.modelPredictiveController.reset();
+        this.projection.reset();
         this.start();
     }
 
+    public enum Mode {
+        CLOSEST_POINT,
+        PURE_PURSUIT,
+        MODEL_PREDICTIVE,
+        FEEDFORWARD
+    }
+
     public record Constants(double startHeading, double endHeading,
-                            PIDPreset drivePreset, PIDPreset omegaPreset) {}
+                            PIDPreset drivePreset, PIDPreset omegaPreset,
+                            PurePursuit.Constants purePursuit,
+                            ModelPredictiveController.Constants modelPredictive,
+                            PathSchedule.Constants pathSchedule) {
+        public Constants(double startHeading, double endHeading, PIDPreset drivePreset, PIDPreset omegaPreset) {
+            this(startHeading, endHeading, drivePreset, omegaPreset,
+                    new PurePursuit.Constants(0.4, 2, 0.3, 10),
+                    new ModelPredictiveController.Constants(20, 10, 0.05, 30, 10),
+                    new PathSchedule.Constants(500, 2, 0.5, 3.5));
+        }
+    }
 }
@@ -0,0 +1,176 @@
+package beziercurve;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds contacts between the square footprints of the robots in a {@link SimulationWorld}.
+ *
+ * <p>A sweep and prune broadphase keeps the robots sorted by the left edge of their bounding boxes.
+ * Robots barely move between ticks, so the insertion sort that keeps the order is close to linear,
+ * and only pairs whose boxes overlap reach the narrowphase: a separating axis test between the two
+ * rotated squares. The boxes are padded by a margin, so near misses are measured too.
+ */
+public class CollisionDetector {
+    private final double halfWidth;
+    private final double reach;
+
+    private int[] order = new int[0];
+    private double[] minX = new double[0];
+    private double[] maxX = new double[0];
+
+    private Set<Long> contacts = new HashSet<>();
+    private Set<Long> lastContacts = new HashSet<>();
+    private final List<Contact> contactEvents = new ArrayList<>();
+
+    private double minSeparation = Double.POSITIVE_INFINITY;
+    private long narrowphaseChecks = 0;
+
+    /**
+     * @param width The width of a robot's square footprint, in meters.
+     * @param margin How far apart two robots may be and still have their separation measured, in meters.
+     */
+    public CollisionDetector(double width, double margin) {
+        this.halfWidth = width / 2;
+        // The half diagonal bounds the footprint at any heading
+        this.reach = this.halfWidth * Math.sqrt(2) + margin / 2;
+    }
+
+    public void update(SimulationWorld world) {
+        int size = world.size();
+        if (this.order.length != size)
+            this.resize(size);
+
+        for (int i = 0; i < size; i++) {
+            this.minX[i] = world.getX(i) - this.reach;
+            this.maxX[i] = world.getX(i) + this.reach;
+        }
+        this.sort();
+
+        Set<Long> swap = this.lastContacts;
+        this.lastContacts = this.contacts;
+        this.contacts = swap;
+        this.contacts.clear();
+
+        for (int a = 0; a < size; a++) {
+            int first = this.order[a];
+            for (int b = a + 1; b < size && this.minX[this.order[b]] <= this.maxX[first]; b++) {
+                int second = this.order[b];
+                if (Math.abs(world.getY(first) - world.getY(second)) > 2 * this.reach)
+                    continue;
+
+                double separation = this.getSeparation(world, first, second);
+                this.minSeparation = Math.min(this.minSeparation, separation);
+                if (separation < 0) {
+                    long key = getKey(first, second);
+                    this.contacts.add(key);
+                    if (!this.lastContacts.contains(key))
+                        this.contactEvents.add(new Contact(world.getSeconds(), Math.min(first, second), Math.max(first, second), -separation));
+                }
+            }
+        }
+    }
+
+    /**
+     * The separating axis test between two rotated squares: the largest gap between their
+     * projections on the four edge normals. It is negative when they overlap, and then its magnitude
+     * is the penetration depth.
+     */
+    private double getSeparation(SimulationWorld world, int first, int second) {
+        this.narrowphaseChecks++;
+
+        double dx = world.getX(second) - world.getX(first);
+        double dy = world.getY(second) - world.getY(first);
+        double cos1 = Math.cos(world.getTheta(first)), sin1 = Math.sin(world.getTheta(first));
+        double cos2 = Math.cos(world.getTheta(second)), sin2 = Math.sin(world.getTheta(second));
+
+        // Each square's edge normals are its heading and the heading turned by 90 degrees
+        double separation = Double.NEGATIVE_INFINITY;
+        separation = Math.max(separation, this.getSeparation(dx, dy, cos1, sin1, cos2, sin2));
+        separation = Math.max(separation, this.getSeparation(dx, dy, -sin1, cos1, cos2, sin2));
+        separation = Math.max(separation, this.getSeparation(dx, dy, cos2, sin2, cos1, sin1));
+        separation = Math.max(separation, this.getSeparation(dx, dy, -sin2, cos2, cos1, sin1));
+        return separation;
+    }
+
+    /**
+     * @return The gap along the axis (axisX, axisY), which is one of the first square's normals, to a
+     *     square rotated by (cos, sin).
+     */
+    private double getSeparation(double dx, double dy, double axisX, double axisY, double cos, double sin) {
+        double distance = Math.abs(dx * axisX + dy * axisY);
+        double otherRadius = this.halfWidth * (Math.abs(axisX * cos + axisY * sin) + Math.abs(-axisX * sin + axisY * cos));
+        return distance - this.halfWidth - otherRadius;
+    }
+
+    /** Insertion sort by the left edge, close to linear when the order barely changed since the last tick. */
+    private void sort() {
+        for (int i = 1; i < this.order.length; i++) {
+            int index = this.order[i];
+            double key = this.minX[index];
+            int j = i - 1;
+            while (j >= 0 && this.minX[this.order[j]] > key) {
+                this.order[j + 1] = this.order[j];
+                j--;
+            }
+            this.order[j + 1] = index;
+        }
+    }
+
+    private void resize(int size) {
+        this.order = new int[size];
+        for (int i = 0; i < size; i++) {
+            this.order[i] = i;
+        }
+        this.minX = new double[size];
+        this.maxX = new double[size];
+    }
+
+    private static long getKey(int first, int second) {
+        return ((long) Math.min(first, second) << 32) | Math.max(first, second);
+    }
+
+    /**
+     * @return How many pairs of robots touched in the last update.
+     */
+    public int getContactCount() {
+        return this.contacts.size();
+    }
+
+    /**
+     * @return Every time two robots started touching, in order.
+     */
+    public List<Contact> getContactEvents() {
+        return contactEvents;
+    }
+
+    /**
+     * @return The smallest separation seen since the last reset in meters, negative for the deepest
+     *     penetration, or infinity if no two robots came within the margin.
+     */
+    public double getMinSeparation() {
+        return minSeparation;
+    }
+
+    public long getNarrowphaseChecks() {
+        return narrowphaseChecks;
+    }
+
+    public void reset() {
+        this.contacts.clear();
+        this.lastContacts.clear();
+        this.contactEvents.clear();
+        this.minSeparation = Double.POSITIVE_INFINITY;
+        this.narrowphaseChecks = 0;
+    }
+
+    /**
+     * @param time When the robots started touching, in simulated seconds.
+     * @param first The index of the first robot.
+     * @param second The index of the second robot.
+     * @param penetration How deep the footprints overlapped when the contact started, in meters.
+     */
+    public record Contact(double time, int first, int second, double penetration) {}
+}
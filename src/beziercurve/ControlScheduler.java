@@ -0,0 +1,158 @@
+package beziercurve;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a control task at a fixed rate on its own thread, independent of rendering.
+ *
+ * <p>Every tick has a release time on a fixed grid. The thread parks until shortly before the
+ * release and spins the rest of the way, so the start of a tick is not at the mercy of the sleep
+ * granularity. A tick that is still running at the next release is a missed deadline; what happens
+ * to the releases it overran is decided by the {@link OverrunPolicy}.
+ */
+public class ControlScheduler {
+    private static final long SPIN_NANOS = 200_000;
+
+    private final Runnable task;
+    private final long periodNanos;
+    private final OverrunPolicy overrunPolicy;
+    private final String name;
+    private final int priority;
+
+    private volatile Thread thread;
+
+    private volatile long ticks = 0;
+    private volatile long missedDeadlines = 0;
+    private volatile long skippedTicks = 0;
+    private volatile long lastJitterNanos = 0;
+    private volatile long maxJitterNanos = 0;
+    private volatile long totalJitterNanos = 0;
+
+    /**
+     * @param task The task to run every tick.
+     * @param frequency How many times a second to run the task.
+     * @param overrunPolicy What to do with releases that passed while a tick overran.
+     * @param name The name of the thread.
+     * @param priority The priority of the thread.
+     */
+    public ControlScheduler(Runnable task, double frequency, OverrunPolicy overrunPolicy, String name, int priority) {
+        this.task = task;
+        this.periodNanos = (long) (1e9 / frequency);
+        this.overrunPolicy = overrunPolicy;
+        this.name = name;
+        this.priority = priority;
+    }
+
+    public ControlScheduler(Runnable task, double frequency, OverrunPolicy overrunPolicy) {
+        this(task, frequency, overrunPolicy, "Control Scheduler", Thread.MAX_PRIORITY);
+    }
+
+    public synchronized void start() {
+        if (this.thread != null)
+            return;
+
+        this.thread = new Thread(this::run, this.name);
+        this.thread.setDaemon(true);
+        this.thread.setPriority(this.priority);
+        this.thread.start();
+    }
+
+    public synchronized void stop() {
+        Thread thread = this.thread;
+        this.thread = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return this.thread != null;
+    }
+
+    private void run() {
+        Thread self = Thread.currentThread();
+        long release = System.nanoTime() + this.periodNanos;
+
+        while (this.thread == self) {
+            long remaining;
+            while ((remaining = release - System.nanoTime()) > 0) {
+                if (remaining > SPIN_NANOS)
+                    LockSupport.parkNanos(remaining - SPIN_NANOS);
+                else
+                    Thread.onSpinWait();
+                if (self.isInterrupted())
+                    return;
+            }
+
+            long start = System.nanoTime();
+            this.recordJitter(start - release);
+            this.task.run();
+            long end = System.nanoTime();
+            this.ticks++;
+
+            release += this.periodNanos;
+            if (end > release) {
+                this.missedDeadlines++;
+                if (this.overrunPolicy == OverrunPolicy.SKIP) {
+                    long missed = (end - release) / this.periodNanos + 1;
+                    this.skippedTicks += missed;
+                    release += missed * this.periodNanos;
+                }
+            }
+        }
+    }
+
+    private void recordJitter(long jitter) {
+        this.lastJitterNanos = jitter;
+        this.maxJitterNanos = Math.max(this.maxJitterNanos, jitter);
+        this.totalJitterNanos += jitter;
+    }
+
+    public double getPeriod() {
+        return this.periodNanos / 1e9;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    /**
+     * @return How late the last tick started after its release, in milliseconds.
+     */
+    public double getLastJitterMillis() {
+        return this.lastJitterNanos / 1e6;
+    }
+
+    public double getMaxJitterMillis() {
+        return this.maxJitterNanos / 1e6;
+    }
+
+    public double getAverageJitterMillis() {
+        long ticks = this.ticks;
+        return ticks == 0 ? 0 : this.totalJitterNanos / 1e6 / ticks;
+    }
+
+    public void resetCounters() {
+        this.ticks = 0;
+        this.missedDeadlines = 0;
+        this.skippedTicks = 0;
+        this.lastJitterNanos = 0;
+        this.maxJitterNanos = 0;
+        this.totalJitterNanos = 0;
+    }
+
+    public enum OverrunPolicy {
+        /** Run the overrun releases back to back until the schedule is caught up. */
+        CATCH_UP,
+        /** Drop the overrun releases and continue from the next release in the future. */
+        SKIP
+    }
+}
@@ -0,0 +1,159 @@
+package beziercurve;
+
+import math.geometry.Translation2d;
+
+import java.awt.*;
+import java.awt.geom.Path2D;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A curve flattened into a {@link Path2D} of lines, so it can be drawn with one call. The curve is
+ * split where a chord strays further than the tolerance from it, which keeps the lines about one
+ * pixel from the curve at any zoom with as few lines as that needs.
+ *
+ * <p>The path is tessellated again on the calling thread when the curve changes. When only the
+ * tolerance changes, like on a zoom, the old path is returned while the new one is tessellated in
+ * the background, and the listener is called when it is ready.
+ */
+public class CurvePath {
+    private static final int MIN_DEPTH = 4;
+    private static final int MAX_DEPTH = 16;
+
+    private final BezierCurve bezierCurve;
+    private final Runnable listener;
+
+    private volatile Tessellation tessellation;
+    private CompletableFuture<Void> pending;
+    private double pendingTolerance;
+
+    /**
+     * @param listener Called, from a background thread, when a tessellation for a new tolerance is ready.
+     */
+    public CurvePath(BezierCurve bezierCurve, Runnable listener) {
+        this.bezierCurve = bezierCurve;
+        this.listener = listener;
+    }
+
+    /**
+     * @param tolerance How far the lines may stray from the curve, in meters.
+     * @return The path of the curve. It must not be modified.
+     */
+    public Shape getShape(double tolerance) {
+        Tessellation tessellation = this.tessellation;
+        int revision = this.bezierCurve.getRevision();
+        if (tessellation == null || tessellation.revision() != revision) {
+            tessellation = tessellate(revision, this.getWaypoints(), tolerance);
+            this.tessellation = tessellation;
+        } else if (tessellation.tolerance() != tolerance
+                && (this.pending == null || this.pending.isDone() || this.pendingTolerance != tolerance)) {
+            this.pendingTolerance = tolerance;
+            double[][] waypoints = this.getWaypoints();
+            this.pending = CompletableFuture.supplyAsync(() -> tessellate(revision, waypoints, tolerance)).thenAccept(result -> {
+                // A newer curve may have been tessellated on the calling thread in the meantime
+                Tessellation current = this.tessellation;
+                if (current != null && current.revision() == result.revision()) {
+                    this.tessellation = result;
+                    this.listener.run();
+                }
+            });
+        }
+        return tessellation.path();
+    }
+
+    /**
+     * @return How many lines the current path has, or 0 if none was tessellated yet.
+     */
+    public int getSegments() {
+        Tessellation tessellation = this.tessellation;
+        return tessellation != null ? tessellation.segments() : 0;
+    }
+
+    private double[][] getWaypoints() {
+        List<Translation2d> waypoints = this.bezierCurve.getWaypoints();
+        double[][] points = new double[2][waypoints.size()];
+        for (int i = 0; i < waypoints.size(); i++) {
+            points[0][i] = waypoints.get(i).getX();
+            points[1][i] = waypoints.get(i).getY();
+        }
+        return points;
+    }
+
+    private static Tessellation tessellate(int revision, double[][] waypoints, double tolerance) {
+        Tessellator tessellator = new Tessellator(waypoints[0], waypoints[1], tolerance);
+        return new Tessellation(revision, tolerance, tessellator.path, tessellator.segments);
+    }
+
+    private record Tessellation(int revision, double tolerance, Path2D.Double path, int segments) {}
+
+    private static class Tessellator {
+        private final double[] x;
+        private final double[] y;
+        private final double tolerance;
+
+        private final double[] scratchX;
+        private final double[] scratchY;
+
+        private final Path2D.Double path = new Path2D.Double();
+        private int segments = 0;
+
+        private double pointX;
+        private double pointY;
+
+        private Tessellator(double[] x, double[] y, double tolerance) {
+            this.x = x;
+            this.y = y;
+            this.tolerance = Math.max(tolerance, 1e-6);
+            this.scratchX = new double[x.length];
+            this.scratchY = new double[y.length];
+
+            this.evaluate(0);
+            double startX = this.pointX, startY = this.pointY;
+            this.evaluate(1);
+            this.path.moveTo(startX, startY);
+            this.subdivide(0, startX, startY, 1, this.pointX, this.pointY, 0);
+        }
+
+        private void subdivide(double t0, double x0, double y0, double t1, double x1, double y1, int depth) {
+            double t = (t0 + t1) / 2;
+            this.evaluate(t);
+            double x = this.pointX, y = this.pointY;
+
+            if (depth < MIN_DEPTH || (depth < MAX_DEPTH && getDeviation(x, y, x0, y0, x1, y1) > this.tolerance)) {
+                this.subdivide(t0, x0, y0, t, x, y, depth + 1);
+                this.subdivide(t, x, y, t1, x1, y1, depth + 1);
+            } else {
+                this.path.lineTo(x1, y1);
+                this.segments++;
+            }
+        }
+
+        /**
+         * Evaluates the curve at t with de Casteljau's algorithm into {@link #pointX} and {@link #pointY}.
+         */
+        private void evaluate(double t) {
+            System.arraycopy(this.x, 0, this.scratchX, 0, this.x.length);
+            System.arraycopy(this.y, 0, this.scratchY, 0, this.y.length);
+            for (int size = this.x.length - 1; size > 0; size--) {
+                for (int i = 0; i < size; i++) {
+                    this.scratchX[i] += t * (this.scratchX[i + 1] - this.scratchX[i]);
+                    this.scratchY[i] += t * (this.scratchY[i + 1] - this.scratchY[i]);
+                }
+            }
+            this.pointX = this.scratchX[0];
+            this.pointY = this.scratchY[0];
+        }
+
+        /**
+         * @return The distance of the point from the chord.
+         */
+        private static double getDeviation(double x, double y, double x0, double y0, double x1, double y1) {
+            double dx = x1 - x0;
+            double dy = y1 - y0;
+            double length = Math.hypot(dx, dy);
+            if (length < 1e-12)
+                return Math.hypot(x - x0, y - y0);
+            return Math.abs((x - x0) * dy - (y - y0) * dx) / length;
+        }
+    }
+}
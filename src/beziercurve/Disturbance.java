@@ -0,0 +1,40 @@
+package beziercurve;
+
+import math.geometry.Pose2d;
+
+/**
+ * Everything between the follower and a perfect robot: how a commanded velocity turns into the
+ * velocity the robot actually drives, how the driven motion is thrown off, and how the robot's pose
+ * is seen by its sensors. {@link #NONE} changes nothing.
+ */
+public interface Disturbance {
+    Disturbance NONE = new Disturbance() {};
+
+    /**
+     * @param command The field relative velocity the follower commanded this tick.
+     * @param lastVelocity The velocity the robot drove last tick.
+     * @param period The length of the tick in seconds.
+     * @return The field relative velocity the robot drives this tick.
+     */
+    default Pose2d actuate(Pose2d command, Pose2d lastVelocity, double period) {
+        return command;
+    }
+
+    /**
+     * @param start The pose at the start of the tick.
+     * @param end The pose the drive would have reached.
+     * @param period The length of the tick in seconds.
+     * @return The pose the robot really reached.
+     */
+    default Pose2d perturb(Pose2d start, Pose2d end, double period) {
+        return end;
+    }
+
+    /**
+     * @param pose The true pose.
+     * @return The pose as the robot's sensors see it.
+     */
+    default Pose2d measure(Pose2d pose) {
+        return pose;
+    }
+}
@@ -0,0 +1,36 @@
+package beziercurve;
+
+import math.geometry.Dimension2d;
+
+import java.awt.*;
+
+/**
+ * How the field is shown, shared by the GUI and the exporter so an exported frame looks like the
+ * window.
+ */
+public final class FieldView {
+    public static final Dimension2d DIMENSION = new Dimension2d(1713, 837);
+    /**
+     * Half the width of the field, in units, which fills the width of the view.
+     */
+    public static final double MAX_VALUE = 8.27;
+
+    public static final String FIELD_IMAGE = "src/beziercurve/Field.png";
+    public static final String ROBOT_IMAGE = "src/beziercurve/Robot.png";
+
+    public static final String FIELD_LAYER = "Field";
+    public static final String PATH_LAYER = "Path";
+
+    public static final double GRID_SPACING = 0.25;
+    public static final Color GRID_MINOR_COLOR = new Color(230, 230, 230);
+    public static final Color GRID_MAJOR_COLOR = new Color(60, 60, 60);
+
+    private FieldView() {}
+
+    /**
+     * @param maxValue Half the width of the view, in units.
+     */
+    public static double convertMaxValueToPixels(double maxValue) {
+        return (DIMENSION.getX() / maxValue) / 2;
+    }
+}
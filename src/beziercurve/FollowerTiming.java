@@ -0,0 +1,58 @@
+package beziercurve;
+
+import util.LatencyHistogram;
+
+/**
+ * A latency histogram for every stage of {@link BezierFollower#update()}, so the stage that blows
+ * the tick budget can be found while the follower runs.
+ */
+public class FollowerTiming {
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+
+    public FollowerTiming() {
+        for (Stage stage : Stage.values()) {
+            this.histograms[stage.ordinal()] = new LatencyHistogram(stage.getName());
+        }
+    }
+
+    public void record(Stage stage, long nanos) {
+        this.histograms[stage.ordinal()].record(nanos);
+    }
+
+    public LatencyHistogram get(Stage stage) {
+        return this.histograms[stage.ordinal()];
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : this.histograms) {
+            histogram.reset();
+        }
+    }
+
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (LatencyHistogram histogram : this.histograms) {
+            report.append(histogram).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    public enum Stage {
+        CLOSEST_STATE("Closest State"),
+        CALCULATE_VELOCITY("Calculate Velocity"),
+        CALCULATE_OMEGA("Calculate Omega"),
+        GET_VELOCITY("Get Velocity"),
+        DRIVE("Drive"),
+        TOTAL("Total");
+
+        private final String name;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
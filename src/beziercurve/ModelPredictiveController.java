@@ -0,0 +1,270 @@
+package beziercurve;
+
+import math.geometry.Pose2d;
+import math.geometry.Rotation2d;
+import math.geometry.Translation2d;
+
+import java.util.Arrays;
+
+/**
+ * Model predictive path following for the holonomic robot.
+ *
+ * <p>The robot is modeled as p[k + 1] = p[k] + u[k] * period, where u is the commanded field
+ * relative velocity. Every update optimizes the velocities over a fixed horizon to minimize
+ *
+ * <pre>
+ * sum(positionWeight * |p[k + 1] - r[k + 1]|^2) + sum(smoothnessWeight * |u[k] - u[k - 1]|^2)
+ * </pre>
+ *
+ * <p>where r are the upcoming curve samples spaced by the requested speed. The problem is a small
+ * QP solved with a fixed number of accelerated projected gradient steps onto |u| &lt;= maxVel,
+ * warm started from the previous solution shifted by one tick. The velocity change is then
+ * limited to the path's max acceleration. All buffers are allocated once, so a solve allocates
+ * nothing.
+ */
+public class ModelPredictiveController {
+    private final BezierCurve bezierCurve;
+    private final Constants constants;
+    private final double maxVel;
+    private final double period;
+
+    private final double[] referenceX;
+    private final double[] referenceY;
+    private final double[] controlX;
+    private final double[] controlY;
+    private final double[] momentumX;
+    private final double[] momentumY;
+    private final double[] gradientX;
+    private final double[] gradientY;
+    private final double[] previousX;
+    private final double[] previousY;
+
+    private final PathProjection projection;
+
+    private long lastSolveNanos = 0;
+    private long maxSolveNanos = 0;
+    private long totalSolveNanos = 0;
+    private long solves = 0;
+    private long overruns = 0;
+
+    public ModelPredictiveController(BezierCurve bezierCurve, Robot.Constants robotConstants, Constants constants) {
+        this.bezierCurve = bezierCurve;
+        this.constants = constants;
+        this.maxVel = robotConstants.maxVel();
+        this.period = robotConstants.period();
+        this.projection = new PathProjection(bezierCurve, constants.searchWindow);
+
+        int horizon = constants.horizon;
+        this.referenceX = new double[horizon + 1];
+        this.referenceY = new double[horizon + 1];
+        this.controlX = new double[horizon];
+        this.controlY = new double[horizon];
+        this.momentumX = new double[horizon];
+        this.momentumY = new double[horizon];
+        this.gradientX = new double[horizon];
+        this.gradientY = new double[horizon];
+        this.previousX = new double[horizon];
+        this.previousY = new double[horizon];
+    }
+
+    /**
+     * Projects the robot onto the curve, searching around the previous projection.
+     *
+     * @param robot The robot's position.
+     * @return The t of the projected robot position on the curve.
+     */
+    public double update(Translation2d robot) {
+        this.projection.update(robot, 2 * this.maxVel * this.period);
+        return this.projection.getT();
+    }
+
+    /**
+     * Solves the horizon and returns the first velocity of the solution.
+     *
+     * @param robot The robot's pose.
+     * @param robotVelocity The robot's current velocity.
+     * @param speed The requested speed along the path, used to space the reference samples.
+     * @param omega The requested angular velocity in degrees per second.
+     * @return The velocity of the robot.
+     */
+    public Pose2d calculate(Pose2d robot, Pose2d robotVelocity, double speed, double omega) {
+        long start = System.nanoTime();
+
+        ArcLengthTable table = this.bezierCurve.getArcLengthTable();
+        double step = Math.max(0, Math.min(speed, this.maxVel)) * this.period;
+        for (int k = 0; k <= this.constants.horizon; k++) {
+            double distance = Math.min(this.projection.getDistance() + step * k, table.getLength());
+            this.referenceX[k] = table.getXAtDistance(distance);
+            this.referenceY[k] = table.getYAtDistance(distance);
+        }
+
+        this.solve(robot.getX(), robot.getY(), robotVelocity.getX(), robotVelocity.getY());
+
+        double maxChange = this.bezierCurve.getConstants().maxAccel() * this.period;
+        double changeX = this.controlX[0] - robotVelocity.getX();
+        double changeY = this.controlY[0] - robotVelocity.getY();
+        double change = Math.hypot(changeX, changeY);
+        double vx = this.controlX[0];
+        double vy = this.controlY[0];
+        if (change > maxChange) {
+            vx = robotVelocity.getX() + changeX * (maxChange / change);
+            vy = robotVelocity.getY() + changeY * (maxChange / change);
+        }
+
+        this.recordSolveTime(System.nanoTime() - start);
+        return new Pose2d(vx, vy, Rotation2d.fromDegrees(omega));
+    }
+
+    private void solve(double x, double y, double velocityX, double velocityY) {
+        int horizon = this.constants.horizon;
+        double q = this.constants.positionWeight;
+        double w = this.constants.smoothnessWeight;
+
+        // Warm start from the last solution, shifted by one tick
+        for (int k = 0; k < horizon; k++) {
+            int from = Math.min(k + 1, horizon - 1);
+            this.momentumX[k] = this.controlX[from];
+            this.momentumY[k] = this.controlY[from];
+        }
+        System.arraycopy(this.momentumX, 0, this.controlX, 0, horizon);
+        System.arraycopy(this.momentumY, 0, this.controlY, 0, horizon);
+
+        // Upper bound on the Hessian's largest eigenvalue: the positions are cumulative sums of the
+        // controls, and the smoothness term is a scaled second difference
+        double lipschitz = 2 * q * this.period * this.period * horizon * horizon + 8 * w;
+        double stepSize = 1 / lipschitz;
+        double momentum = 1;
+
+        for (int iteration = 0; iteration < this.constants.iterations; iteration++) {
+            this.calculateGradient(x, y, velocityX, velocityY);
+
+            System.arraycopy(this.controlX, 0, this.previousX, 0, horizon);
+            System.arraycopy(this.controlY, 0, this.previousY, 0, horizon);
+            for (int k = 0; k < horizon; k++) {
+                double ux = this.momentumX[k] - stepSize * this.gradientX[k];
+                double uy = this.momentumY[k] - stepSize * this.gradientY[k];
+                double norm = Math.hypot(ux, uy);
+                if (norm > this.maxVel) {
+                    ux *= this.maxVel / norm;
+                    uy *= this.maxVel / norm;
+                }
+                this.controlX[k] = ux;
+                this.controlY[k] = uy;
+            }
+
+            double nextMomentum = (1 + Math.sqrt(1 + 4 * momentum * momentum)) / 2;
+            double factor = (momentum - 1) / nextMomentum;
+            for (int k = 0; k < horizon; k++) {
+                this.momentumX[k] = this.controlX[k] + factor * (this.controlX[k] - this.previousX[k]);
+                this.momentumY[k] = this.controlY[k] + factor * (this.controlY[k] - this.previousY[k]);
+            }
+            momentum = nextMomentum;
+        }
+    }
+
+    // Gradient of the cost at the momentum point
+    private void calculateGradient(double x, double y, double velocityX, double velocityY) {
+        int horizon = this.constants.horizon;
+        double q = this.constants.positionWeight;
+        double w = this.constants.smoothnessWeight;
+
+        // Forward pass: the position errors are stored in the gradient buffers for now
+        double px = x;
+        double py = y;
+        for (int k = 0; k < horizon; k++) {
+            px += this.momentumX[k] * this.period;
+            py += this.momentumY[k] * this.period;
+            this.gradientX[k] = px - this.referenceX[k + 1];
+            this.gradientY[k] = py - this.referenceY[k + 1];
+        }
+
+        // Backward pass: every control moves all the positions after it
+        double sumX = 0;
+        double sumY = 0;
+        for (int k = horizon - 1; k >= 0; k--) {
+            sumX += this.gradientX[k];
+            sumY += this.gradientY[k];
+
+            double lastX = k == 0 ? velocityX : this.momentumX[k - 1];
+            double lastY = k == 0 ? velocityY : this.momentumY[k - 1];
+            double smoothX = this.momentumX[k] - lastX;
+            double smoothY = this.momentumY[k] - lastY;
+            if (k < horizon - 1) {
+                smoothX -= this.momentumX[k + 1] - this.momentumX[k];
+                smoothY -= this.momentumY[k + 1] - this.momentumY[k];
+            }
+
+            this.gradientX[k] = 2 * q * this.period * sumX + 2 * w * smoothX;
+            this.gradientY[k] = 2 * q * this.period * sumY + 2 * w * smoothY;
+        }
+    }
+
+    private void recordSolveTime(long nanos) {
+        this.lastSolveNanos = nanos;
+        this.maxSolveNanos = Math.max(this.maxSolveNanos, nanos);
+        this.totalSolveNanos += nanos;
+        this.solves++;
+        if (nanos > this.period * 1e9)
+            this.overruns++;
+    }
+
+    public void reset() {
+        this.projection.reset();
+        Arrays.fill(this.controlX, 0);
+        Arrays.fill(this.controlY, 0);
+    }
+
+    public double getProjectedDistance() {
+        return this.projection.getDistance();
+    }
+
+    public Translation2d getPredictedPosition(Translation2d robot, int step) {
+        double x = robot.getX();
+        double y = robot.getY();
+        for (int k = 0; k < Math.min(step, this.constants.horizon); k++) {
+            x += this.controlX[k] * this.period;
+            y += this.controlY[k] * this.period;
+        }
+        return new Translation2d(x, y);
+    }
+
+    public int getHorizon() {
+        return this.constants.horizon;
+    }
+
+    public double getLastSolveMillis() {
+        return this.lastSolveNanos / 1e6;
+    }
+
+    public double getMaxSolveMillis() {
+        return this.maxSolveNanos / 1e6;
+    }
+
+    public double getAverageSolveMillis() {
+        return this.solves == 0 ? 0 : this.totalSolveNanos / 1e6 / this.solves;
+    }
+
+    /**
+     * @return How many solves took longer than one control period.
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    public void resetTiming() {
+        this.lastSolveNanos = 0;
+        this.maxSolveNanos = 0;
+        this.totalSolveNanos = 0;
+        this.solves = 0;
+        this.overruns = 0;
+    }
+
+    /**
+     * @param horizon How many control periods to optimize over.
+     * @param positionWeight The cost of a squared meter of position error at every step.
+     * @param smoothnessWeight The cost of a squared meter per second of velocity change between steps.
+     * @param iterations How many gradient steps every solve runs.
+     * @param searchWindow How many table samples to check behind the previous projection.
+     */
+    public record Constants(int horizon, double positionWeight, double smoothnessWeight, int iterations, int searchWindow) {}
+}
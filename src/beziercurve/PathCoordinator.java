@@ -0,0 +1,217 @@
+package beziercurve;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plans several robots' paths so they do not meet, by prioritized planning on a space-time
+ * reservation table.
+ *
+ * <p>The robots are planned in order. Each robot tries its candidate timings, from the earliest
+ * arrival to the latest: a wait at the start, a speed cap, or both. A planned robot reserves, in
+ * every slot, the cells centered within the clearance of where it is then: its start until it leaves, the
+ * curve while it drives, and its end until the last robot could arrive. Since the reservations are
+ * already grown by the clearance, a candidate only checks the one cell its center is in, and the
+ * slots around each slot, so the followers may run somewhat ahead of or behind the plan. The first
+ * candidate that is free everywhere is kept. Robots that cannot avoid the robots before them with
+ * the waits and speeds tried get the latest, slowest timing and are flagged.
+ */
+public class PathCoordinator {
+    private final Constants constants;
+
+    public PathCoordinator(Constants constants) {
+        this.constants = constants;
+    }
+
+    /**
+     * @param bezierCurves The robots' curves, in order of priority.
+     * @param schedules The curves' schedules, for their speed limits.
+     * @return A plan for every robot, in the same order.
+     */
+    public List<Plan> plan(List<BezierCurve> bezierCurves, List<PathSchedule> schedules) {
+        int robots = bezierCurves.size();
+        int scales = this.constants.speedScales.length;
+
+        // Where every timing puts the robot at the start of every slot, since a candidate is only these shifted by its wait
+        double[][][] x = new double[robots][scales][];
+        double[][][] y = new double[robots][scales][];
+        double[][] totalTime = new double[robots][scales];
+        double longest = 0;
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < robots; i++) {
+            for (int j = 0; j < scales; j++) {
+                PathTrajectory trajectory = new PathTrajectory(bezierCurves.get(i), schedules.get(i),
+                        bezierCurves.get(i).getConstants().maxVel() * this.constants.speedScales[j]);
+                int slots = (int) Math.ceil(trajectory.getTotalTime() / this.constants.slotSeconds) + 1;
+                x[i][j] = new double[slots];
+                y[i][j] = new double[slots];
+                for (int slot = 0; slot < slots; slot++) {
+                    x[i][j][slot] = trajectory.getX(slot * this.constants.slotSeconds);
+                    y[i][j][slot] = trajectory.getY(slot * this.constants.slotSeconds);
+                    minX = Math.min(minX, x[i][j][slot]);
+                    maxX = Math.max(maxX, x[i][j][slot]);
+                    minY = Math.min(minY, y[i][j][slot]);
+                    maxY = Math.max(maxY, y[i][j][slot]);
+                }
+                totalTime[i][j] = trajectory.getTotalTime();
+                longest = Math.max(longest, trajectory.getTotalTime());
+            }
+        }
+        int horizon = (int) Math.ceil(longest / this.constants.slotSeconds) + this.constants.maxWaitSlots + this.constants.paddingSlots + 2;
+
+        // The table only has to cover every position any timing visits, grown by the clearance
+        double clearance = this.constants.clearance;
+        int minCellX = this.getCell(minX - clearance), minCellY = this.getCell(minY - clearance);
+        ReservationTable table = new ReservationTable(minCellX, minCellY,
+                this.getCell(maxX + clearance) - minCellX + 1, this.getCell(maxY + clearance) - minCellY + 1, horizon);
+        // Every robot is at its start in the first slot whatever its plan, so no robot planned before it may be there
+        for (int robot = 0; robot < robots; robot++) {
+            this.reserve(table, robot, x[robot][0][0], y[robot][0][0], 0, 1);
+        }
+
+        List<Plan> plans = new ArrayList<>(robots);
+        long[] candidates = new long[(this.constants.maxWaitSlots + 1) * scales];
+        int[] startFree = new int[scales];
+        int[] endBlocked = new int[scales];
+        for (int robot = 0; robot < robots; robot++) {
+            // Candidates packed as (arrival, wait, scale), so a plain sort orders them by arrival and then by wait
+            int count = 0;
+            for (int wait = 0; wait <= this.constants.maxWaitSlots; wait++) {
+                for (int scale = 0; scale < scales; scale++) {
+                    long arrival = wait + x[robot][scale].length;
+                    candidates[count++] = (arrival << 32) | ((long) wait << 8) | scale;
+                }
+            }
+            Arrays.sort(candidates, 0, count);
+
+            // Every candidate of a timing parks at the same start and end, so those are checked once per timing.
+            // A slot is blocked with its padding when a slot within the padding is blocked without it
+            int padding = this.constants.paddingSlots;
+            for (int scale = 0; scale < scales; scale++) {
+                double[] robotX = x[robot][scale];
+                double[] robotY = y[robot][scale];
+                int startX = this.getCell(robotX[0]), startY = this.getCell(robotY[0]);
+                int endX = this.getCell(robotX[robotX.length - 1]), endY = this.getCell(robotY[robotY.length - 1]);
+
+                int firstBlocked = 0;
+                while (firstBlocked < horizon && table.isFree(startX, startY, firstBlocked, robot))
+                    firstBlocked++;
+                startFree[scale] = firstBlocked == horizon ? horizon : Math.max(0, firstBlocked - padding);
+
+                int lastBlocked = horizon - 1;
+                while (lastBlocked >= 0 && table.isFree(endX, endY, lastBlocked, robot))
+                    lastBlocked--;
+                endBlocked[scale] = lastBlocked < 0 ? -1 : Math.min(lastBlocked + padding, horizon - 1);
+            }
+
+            int chosen = count - 1;
+            boolean conflictFree = false;
+            for (int i = 0; i < count; i++) {
+                int wait = (int) ((candidates[i] >>> 8) & 0xFFFFFF);
+                int scale = (int) (candidates[i] & 0xFF);
+                if (this.isFree(table, robot, x[robot][scale], y[robot][scale], wait, horizon, startFree[scale], endBlocked[scale])) {
+                    chosen = i;
+                    conflictFree = true;
+                    break;
+                }
+            }
+
+            int wait = (int) ((candidates[chosen] >>> 8) & 0xFFFFFF);
+            int scale = (int) (candidates[chosen] & 0xFF);
+            // The robot is parked at its start until the wait ends and at its end from its arrival on
+            double[] robotX = x[robot][scale];
+            double[] robotY = y[robot][scale];
+            int arrival = wait + robotX.length - 1;
+            this.reserve(table, robot, robotX[0], robotY[0], 0, Math.min(wait, horizon));
+            for (int slot = wait; slot < Math.min(arrival, horizon); slot++) {
+                this.reserve(table, robot, robotX[slot - wait], robotY[slot - wait], slot, slot + 1);
+            }
+            this.reserve(table, robot, robotX[robotX.length - 1], robotY[robotY.length - 1], Math.min(arrival, horizon), horizon);
+
+            double startDelay = wait * this.constants.slotSeconds;
+            plans.add(new Plan(robot, startDelay, this.constants.speedScales[scale],
+                    bezierCurves.get(robot).getConstants().maxVel() * this.constants.speedScales[scale],
+                    startDelay + totalTime[robot][scale], conflictFree));
+        }
+        return plans;
+    }
+
+    /**
+     * @param startFree How many slots from the first the start is free in.
+     * @param endBlocked The last slot the end is not free in, or -1 if none.
+     * @return Whether the timing, delayed by the wait, is free in every slot of the horizon.
+     */
+    private boolean isFree(ReservationTable table, int robot, double[] x, double[] y, int wait, int horizon,
+                           int startFree, int endBlocked) {
+        int arrival = wait + x.length - 1;
+        if (wait > startFree || arrival <= endBlocked)
+            return false;
+
+        for (int slot = wait; slot < Math.min(arrival, horizon); slot++) {
+            if (!this.isFree(table, robot, x[slot - wait], y[slot - wait], slot))
+                return false;
+        }
+        return true;
+    }
+
+    private boolean isFree(ReservationTable table, int robot, double x, double y, int slot) {
+        int cellX = this.getCell(x);
+        int cellY = this.getCell(y);
+        for (int padding = Math.max(0, slot - this.constants.paddingSlots); padding <= slot + this.constants.paddingSlots; padding++) {
+            if (!table.isFree(cellX, cellY, padding, robot))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reserves every cell whose center is within the clearance of the position, from the first slot
+     * up to but not including the last. A cell's slots are next to each other in the table.
+     */
+    private void reserve(ReservationTable table, int robot, double x, double y, int fromSlot, int toSlot) {
+        double size = this.constants.cellSize;
+        double clearance = this.constants.clearance;
+        int minX = this.getCell(x - clearance), maxX = this.getCell(x + clearance);
+        int minY = this.getCell(y - clearance), maxY = this.getCell(y + clearance);
+        for (int cellX = minX; cellX <= maxX; cellX++) {
+            double dx = (cellX + 0.5) * size - x;
+            for (int cellY = minY; cellY <= maxY; cellY++) {
+                double dy = (cellY + 0.5) * size - y;
+                if (dx * dx + dy * dy > clearance * clearance)
+                    continue;
+                for (int slot = fromSlot; slot < toSlot; slot++) {
+                    table.reserve(cellX, cellY, slot, robot);
+                }
+            }
+        }
+    }
+
+    private int getCell(double coordinate) {
+        return (int) Math.floor(coordinate / this.constants.cellSize);
+    }
+
+    /**
+     * @param index The index of the robot.
+     * @param startDelay How long the robot waits at the start, in seconds.
+     * @param speedScale The fraction of the curve's max velocity the robot may drive.
+     * @param maxVelocity The speed cap that fraction gives, in meters per second.
+     * @param arrivalTime When the robot is planned to stop at the end, in seconds.
+     * @param conflictFree Whether the plan avoids every robot planned before it. If no timing did, the
+     *     robot gets the latest, slowest one.
+     */
+    public record Plan(int index, double startDelay, double speedScale, double maxVelocity, double arrivalTime,
+                       boolean conflictFree) {}
+
+    /**
+     * @param cellSize The side of a grid cell, in meters. The clearance is kept to within half a cell diagonal.
+     * @param slotSeconds The length of a time slot, in seconds.
+     * @param clearance How far apart the centers of two robots must stay, in meters.
+     * @param paddingSlots How many slots before and after a slot a robot's cells must also be free.
+     * @param maxWaitSlots The longest wait at the start to try, in slots.
+     * @param speedScales The fractions of the max velocity to try, fastest first.
+     */
+    public record Constants(double cellSize, double slotSeconds, double clearance, int paddingSlots, int maxWaitSlots,
+                            double... speedScales) {}
+}
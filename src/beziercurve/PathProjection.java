@@ -0,0 +1,56 @@
+package beziercurve;
+
+import math.geometry.Translation2d;
+
+/**
+ * Tracks the robot's projection on a curve across ticks. Every update only searches the curve's
+ * {@link ArcLengthTable} around the previous projection, and starts over when the curve changes.
+ */
+public class PathProjection {
+    private final BezierCurve bezierCurve;
+    private final int searchWindow;
+
+    private int lastIndex = -1;
+    private int lastRevision = -1;
+    private double distance = 0;
+
+    /**
+     * @param bezierCurve The curve to project on.
+     * @param searchWindow How many table samples to check behind the previous projection.
+     */
+    public PathProjection(BezierCurve bezierCurve, int searchWindow) {
+        this.bezierCurve = bezierCurve;
+        this.searchWindow = searchWindow;
+    }
+
+    /**
+     * Projects the robot onto the curve.
+     *
+     * @param robot The robot's position.
+     * @param searchDistance How far ahead of the previous projection to search, in arc length.
+     * @return The arc length of the projection.
+     */
+    public double update(Translation2d robot, double searchDistance) {
+        ArcLengthTable table = this.bezierCurve.getArcLengthTable();
+        if (table.getRevision() != this.lastRevision) {
+            this.lastIndex = -1;
+            this.lastRevision = table.getRevision();
+        }
+
+        this.lastIndex = table.getClosestIndex(robot.getX(), robot.getY(), this.lastIndex, this.searchWindow, searchDistance);
+        this.distance = table.project(this.lastIndex, robot.getX(), robot.getY());
+        return this.distance;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getT() {
+        return this.bezierCurve.getArcLengthTable().getT(this.distance);
+    }
+
+    public void reset() {
+        this.lastIndex = -1;
+    }
+}
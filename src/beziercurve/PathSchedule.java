@@ -0,0 +1,82 @@
+package beziercurve;
+
+/**
+ * Everything the feedforward follower needs about a curve, sampled once at evenly spaced arc
+ * lengths: the tangent, whose change along the path is the heading rate to feed forward, the
+ * curvature speed limit and the scheduled cross-track gain, which grows with the curvature so tight
+ * turns are corrected harder. A lookup is an index computation, so none of the numeric derivatives
+ * of {@link BezierCurve} run during a tick.
+ */
+public class PathSchedule {
+    private final int revision;
+    private final double length;
+    private final double spacing;
+
+    private final double[] tangentAngle;
+    private final double[] maxVelocity;
+    private final double[] crossTrackGain;
+
+    public PathSchedule(BezierCurve bezierCurve, Constants constants) {
+        ArcLengthTable table = bezierCurve.getArcLengthTable();
+        int samples = constants.samples;
+        this.revision = table.getRevision();
+        this.length = table.getLength();
+        this.spacing = this.length / (samples - 1);
+
+        this.tangentAngle = new double[samples];
+        this.maxVelocity = new double[samples];
+        this.crossTrackGain = new double[samples];
+
+        for (int i = 0; i < samples; i++) {
+            double t = table.getT(i * this.spacing);
+            double curvature = 1 / bezierCurve.getCurvatureRadius(t);
+
+            this.tangentAngle[i] = bezierCurve.getAngle(t).getRadians();
+            // Cusps have an unbounded curvature, which would make the gain explode
+            double limitedCurvature = Double.isFinite(curvature) ? Math.max(-constants.maxCurvature, Math.min(curvature, constants.maxCurvature)) : 0;
+            this.maxVelocity[i] = bezierCurve.limitVelocity(t, bezierCurve.getConstants().maxVel());
+            this.crossTrackGain[i] = constants.crossTrackGain * (1 + constants.curvatureGain * Math.abs(limitedCurvature));
+        }
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * @param distance The arc length along the path.
+     * @return The angle of the path's tangent in radians.
+     */
+    public double getTangentAngle(double distance) {
+        return this.tangentAngle[this.getIndex(distance)];
+    }
+
+    public double getMaxVelocity(double distance) {
+        return this.maxVelocity[this.getIndex(distance)];
+    }
+
+    /**
+     * @param distance The arc length along the path.
+     * @return How many meters per second to correct per meter of cross-track error.
+     */
+    public double getCrossTrackGain(double distance) {
+        return this.crossTrackGain[this.getIndex(distance)];
+    }
+
+    private int getIndex(double distance) {
+        int index = (int) Math.round(distance / this.spacing);
+        return Math.max(0, Math.min(index, this.tangentAngle.length - 1));
+    }
+
+    /**
+     * @param samples How many evenly spaced arc lengths to sample.
+     * @param crossTrackGain The cross-track gain on a straight line, in 1 / seconds.
+     * @param curvatureGain How much the cross-track gain grows per unit of curvature, in meters.
+     * @param maxCurvature The largest curvature magnitude the gain grows with, in 1 / meters.
+     */
+    public record Constants(int samples, double crossTrackGain, double curvatureGain, double maxCurvature) {}
+}
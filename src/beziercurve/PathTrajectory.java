@@ -0,0 +1,88 @@
+package beziercurve;
+
+/**
+ * A time parameterization of a curve: when the robot passes every sample of a {@link PathSchedule}
+ * if it drives as fast as the curvature speed limit, a speed cap and the max acceleration allow,
+ * starting and ending at rest.
+ */
+public class PathTrajectory {
+    private final ArcLengthTable table;
+    private final double[] distance;
+    private final double[] time;
+
+    /**
+     * @param bezierCurve The curve to drive.
+     * @param schedule The curve's schedule, for the speed limit along it.
+     * @param maxVelocity A cap on the speed along the whole curve, in meters per second.
+     */
+    public PathTrajectory(BezierCurve bezierCurve, PathSchedule schedule, double maxVelocity) {
+        this.table = bezierCurve.getArcLengthTable();
+        double maxAccel = bezierCurve.getConstants().maxAccel();
+
+        int samples = Math.max(2, (int) Math.ceil(schedule.getLength() / 0.05) + 1);
+        double spacing = schedule.getLength() / (samples - 1);
+        this.distance = new double[samples];
+        this.time = new double[samples];
+
+        double[] velocity = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            this.distance[i] = i * spacing;
+            velocity[i] = Math.max(0, Math.min(schedule.getMaxVelocity(this.distance[i]), maxVelocity));
+        }
+
+        // Accelerate from rest forwards and decelerate to rest backwards, v^2 = v0^2 + 2 * a * d
+        velocity[0] = 0;
+        for (int i = 1; i < samples; i++) {
+            velocity[i] = Math.min(velocity[i], Math.sqrt(velocity[i - 1] * velocity[i - 1] + 2 * maxAccel * spacing));
+        }
+        velocity[samples - 1] = 0;
+        for (int i = samples - 2; i >= 0; i--) {
+            velocity[i] = Math.min(velocity[i], Math.sqrt(velocity[i + 1] * velocity[i + 1] + 2 * maxAccel * spacing));
+        }
+
+        for (int i = 1; i < samples; i++) {
+            double average = (velocity[i - 1] + velocity[i]) / 2;
+            this.time[i] = this.time[i - 1] + (average > 1e-9 ? spacing / average : 0);
+        }
+    }
+
+    public double getTotalTime() {
+        return this.time[this.time.length - 1];
+    }
+
+    public double getLength() {
+        return this.distance[this.distance.length - 1];
+    }
+
+    /**
+     * @param time Seconds since the start of the trajectory.
+     * @return The arc length reached at the time, clamped to the curve.
+     */
+    public double getDistance(double time) {
+        if (time <= 0)
+            return 0;
+        if (time >= this.getTotalTime())
+            return this.getLength();
+
+        int low = 0;
+        int high = this.time.length - 1;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (this.time[middle] <= time)
+                low = middle;
+            else
+                high = middle;
+        }
+
+        double fraction = (time - this.time[low]) / (this.time[high] - this.time[low]);
+        return this.distance[low] + (this.distance[high] - this.distance[low]) * fraction;
+    }
+
+    public double getX(double time) {
+        return this.table.getXAtDistance(this.getDistance(time));
+    }
+
+    public double getY(double time) {
+        return this.table.getYAtDistance(this.getDistance(time));
+    }
+}
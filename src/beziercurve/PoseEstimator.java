@@ -0,0 +1,236 @@
+package beziercurve;
+
+import math.geometry.Pose2d;
+import math.geometry.Rotation2d;
+
+/**
+ * An extended Kalman filter on (x, y, heading) that dead-reckons with the robot relative odometry
+ * and corrects with absolute position fixes, such as vision, and heading measurements, such as a
+ * gyro.
+ *
+ * <p>The state, the covariance and every intermediate matrix are fixed-size primitive arrays
+ * allocated once, in row-major order, so predicting and correcting allocate nothing.
+ */
+public class PoseEstimator {
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int THETA = 2;
+
+    private final Constants constants;
+
+    private final double[] state = new double[3];
+    private final double[] covariance = new double[9];
+
+    private final double[] jacobian = new double[9];
+    private final double[] product = new double[9];
+    private final double[] gain = new double[6];
+
+    public PoseEstimator(Pose2d initialPose, Constants constants) {
+        this.constants = constants;
+        this.reset(initialPose);
+    }
+
+    /**
+     * Moves the estimate to a pose that is known exactly, like the start of a path.
+     */
+    public void reset(Pose2d pose) {
+        this.state[X] = pose.getX();
+        this.state[Y] = pose.getY();
+        this.state[THETA] = pose.getRotation().getRadians();
+        for (int i = 0; i < 9; i++) {
+            this.covariance[i] = 0;
+        }
+    }
+
+    /**
+     * Dead-reckons the estimate over one odometry interval.
+     *
+     * @param vx The forward velocity in the robot's frame, in meters per second.
+     * @param vy The sideways velocity in the robot's frame, in meters per second.
+     * @param omega The angular velocity in radians per second.
+     * @param dt The length of the interval in seconds.
+     */
+    public void predict(double vx, double vy, double omega, double dt) {
+        // The heading halfway through the interval, so turning while driving does not bias the translation
+        double theta = this.state[THETA] + omega * dt / 2;
+        double cos = Math.cos(theta);
+        double sin = Math.sin(theta);
+
+        this.state[X] += (vx * cos - vy * sin) * dt;
+        this.state[Y] += (vx * sin + vy * cos) * dt;
+        this.state[THETA] += omega * dt;
+
+        // P = F * P * F^T + Q, where F is the identity with the heading's effect on the translation
+        identity(this.jacobian);
+        this.jacobian[X * 3 + THETA] = -(vx * sin + vy * cos) * dt;
+        this.jacobian[Y * 3 + THETA] = (vx * cos - vy * sin) * dt;
+
+        multiply(this.jacobian, this.covariance, this.product);
+        multiplyTransposed(this.product, this.jacobian, this.covariance);
+
+        double odometryVariance = this.constants.odometryStdDev * this.constants.odometryStdDev * dt;
+        this.covariance[X * 3 + X] += odometryVariance;
+        this.covariance[Y * 3 + Y] += odometryVariance;
+        this.covariance[THETA * 3 + THETA] += this.constants.headingStdDev * this.constants.headingStdDev * dt;
+    }
+
+    /**
+     * Predicts with a field relative velocity, like the one {@link Robot#drive(Pose2d)} takes, by
+     * rotating it into the frame of the given heading.
+     *
+     * @param velocity The field relative velocity, with the angular velocity in degrees per second.
+     * @param heading The heading the velocity was measured at, as the odometry would see it.
+     * @param dt The length of the interval in seconds.
+     */
+    public void predict(Pose2d velocity, Rotation2d heading, double dt) {
+        double cos = heading.getCos();
+        double sin = heading.getSin();
+        this.predict(
+                velocity.getX() * cos + velocity.getY() * sin,
+                -velocity.getX() * sin + velocity.getY() * cos,
+                Math.toRadians(velocity.getRotation().getDegrees()),
+                dt);
+    }
+
+    public void addPositionMeasurement(double x, double y) {
+        this.addPositionMeasurement(x, y, this.constants.fixStdDev);
+    }
+
+    /**
+     * Corrects the estimate with an absolute position fix.
+     *
+     * @param x The measured x in meters.
+     * @param y The measured y in meters.
+     * @param stdDev The standard deviation of the fix in meters.
+     */
+    public void addPositionMeasurement(double x, double y, double stdDev) {
+        double[] p = this.covariance;
+        double variance = stdDev * stdDev;
+
+        // S = H * P * H^T + R, where H picks x and y
+        double s00 = p[0] + variance, s01 = p[1];
+        double s10 = p[3], s11 = p[4] + variance;
+        double determinant = s00 * s11 - s01 * s10;
+        if (Math.abs(determinant) < 1e-12)
+            return;
+        double i00 = s11 / determinant, i01 = -s01 / determinant;
+        double i10 = -s10 / determinant, i11 = s00 / determinant;
+
+        // K = P * H^T * S^-1, a 3x2 matrix
+        for (int row = 0; row < 3; row++) {
+            double p0 = p[row * 3 + X], p1 = p[row * 3 + Y];
+            this.gain[row * 2] = p0 * i00 + p1 * i10;
+            this.gain[row * 2 + 1] = p0 * i01 + p1 * i11;
+        }
+
+        double innovationX = x - this.state[X];
+        double innovationY = y - this.state[Y];
+        for (int row = 0; row < 3; row++) {
+            this.state[row] += this.gain[row * 2] * innovationX + this.gain[row * 2 + 1] * innovationY;
+        }
+
+        // P = P - K * H * P, where H * P is the first two rows of P
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                this.product[row * 3 + column] = p[row * 3 + column]
+                        - this.gain[row * 2] * p[X * 3 + column] - this.gain[row * 2 + 1] * p[Y * 3 + column];
+            }
+        }
+        symmetrize(this.product, this.covariance);
+    }
+
+    /**
+     * Corrects the estimate with an absolute heading measurement.
+     *
+     * @param heading The measured heading.
+     * @param stdDev The standard deviation of the measurement in radians.
+     */
+    public void addHeadingMeasurement(Rotation2d heading, double stdDev) {
+        double[] p = this.covariance;
+        double s = p[THETA * 3 + THETA] + stdDev * stdDev;
+        if (s < 1e-12)
+            return;
+
+        double innovation = Math.IEEEremainder(heading.getRadians() - this.state[THETA], 2 * Math.PI);
+        for (int row = 0; row < 3; row++) {
+            this.gain[row] = p[row * 3 + THETA] / s;
+            this.state[row] += this.gain[row] * innovation;
+        }
+
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                this.product[row * 3 + column] = p[row * 3 + column] - this.gain[row] * p[THETA * 3 + column];
+            }
+        }
+        symmetrize(this.product, this.covariance);
+    }
+
+    public double getX() {
+        return this.state[X];
+    }
+
+    public double getY() {
+        return this.state[Y];
+    }
+
+    /**
+     * @return The estimated heading in radians, not wrapped.
+     */
+    public double getTheta() {
+        return this.state[THETA];
+    }
+
+    public Pose2d getEstimatedPosition() {
+        return new Pose2d(this.state[X], this.state[Y], Rotation2d.fromRadians(this.state[THETA]));
+    }
+
+    /**
+     * @return The standard deviation of the estimated position, as the root of the trace of its covariance.
+     */
+    public double getPositionStdDev() {
+        return Math.sqrt(this.covariance[X * 3 + X] + this.covariance[Y * 3 + Y]);
+    }
+
+    public double getHeadingStdDev() {
+        return Math.sqrt(this.covariance[THETA * 3 + THETA]);
+    }
+
+    private static void identity(double[] matrix) {
+        for (int i = 0; i < 9; i++) {
+            matrix[i] = i % 4 == 0 ? 1 : 0;
+        }
+    }
+
+    private static void multiply(double[] a, double[] b, double[] result) {
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                result[row * 3 + column] = a[row * 3] * b[column] + a[row * 3 + 1] * b[3 + column] + a[row * 3 + 2] * b[6 + column];
+            }
+        }
+    }
+
+    /** result = a * b^T */
+    private static void multiplyTransposed(double[] a, double[] b, double[] result) {
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                result[row * 3 + column] = a[row * 3] * b[column * 3] + a[row * 3 + 1] * b[column * 3 + 1] + a[row * 3 + 2] * b[column * 3 + 2];
+            }
+        }
+    }
+
+    /** Copies the matrix, averaging it with its transpose to wash out rounding. */
+    private static void symmetrize(double[] matrix, double[] result) {
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                result[row * 3 + column] = (matrix[row * 3 + column] + matrix[column * 3 + row]) / 2;
+            }
+        }
+    }
+
+    /**
+     * @param odometryStdDev How fast the odometry's position error grows, in meters per root second.
+     * @param headingStdDev How fast the heading error grows, in radians per root second.
+     * @param fixStdDev The default standard deviation of a position fix, in meters.
+     */
+    public record Constants(double odometryStdDev, double headingStdDev, double fixStdDev) {}
+}
@@ -0,0 +1,175 @@
+package beziercurve;
+
+import math.geometry.Pose2d;
+import math.geometry.Rotation2d;
+import math.geometry.Translation2d;
+import math.geometry.Twist2d;
+
+/**
+ * The poses of the last few seconds, each with the time it was reached, so a measurement that
+ * arrives late can be matched to where the robot was when it was taken.
+ *
+ * <p>Samples are kept in a ring of primitive arrays, so adding one allocates nothing. Samples must
+ * be added in time order; a sample older than the newest one means the clock was reset, and drops
+ * the history.
+ */
+public class PoseHistory {
+    private final double[] time;
+    private final double[] x;
+    private final double[] y;
+    private final double[] theta;
+
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * @param capacity How many samples to keep before the oldest one is overwritten.
+     */
+    public PoseHistory(int capacity) {
+        this.time = new double[capacity];
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.theta = new double[capacity];
+    }
+
+    /**
+     * @param seconds How far back to keep samples.
+     * @param period The time between samples, in seconds.
+     */
+    public PoseHistory(double seconds, double period) {
+        this((int) Math.ceil(seconds / period) + 1);
+    }
+
+    public void add(double time, Pose2d pose) {
+        this.add(time, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+    }
+
+    public void add(double time, double x, double y, double theta) {
+        if (this.size > 0) {
+            double newest = this.getTime(this.size - 1);
+            if (time < newest) {
+                this.clear();
+            } else if (time == newest) {
+                this.size--;
+            }
+        }
+
+        int slot;
+        if (this.size < this.time.length) {
+            slot = this.slot(this.size++);
+        } else {
+            slot = this.head;
+            this.head = (this.head + 1) % this.time.length;
+        }
+        this.time[slot] = time;
+        this.x[slot] = x;
+        this.y[slot] = y;
+        this.theta[slot] = theta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @param index The index of the sample, 0 being the oldest.
+     * @return The time of the sample in seconds.
+     */
+    public double getTime(int index) {
+        return this.time[this.slot(index)];
+    }
+
+    public Pose2d getPose(int index) {
+        int slot = this.slot(index);
+        return new Pose2d(this.x[slot], this.y[slot], Rotation2d.fromRadians(this.theta[slot]));
+    }
+
+    public double getOldestTime() {
+        return this.getTime(0);
+    }
+
+    public double getNewestTime() {
+        return this.getTime(this.size - 1);
+    }
+
+    /**
+     * Finds where the robot was at the given time, interpolating between the two samples around it.
+     * Times outside the history return the oldest or newest pose.
+     *
+     * @param time The time in seconds.
+     * @return The pose at the time, or null if the history is empty.
+     */
+    public Pose2d getSample(double time) {
+        if (this.size == 0)
+            return null;
+        if (time <= this.getOldestTime())
+            return this.getPose(0);
+        if (time >= this.getNewestTime())
+            return this.getPose(this.size - 1);
+
+        // The last sample at or before the time; the first and last samples are ruled out above
+        int low = 0;
+        int high = this.size - 1;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (this.getTime(middle) <= time)
+                low = middle;
+            else
+                high = middle;
+        }
+
+        double start = this.getTime(low);
+        double end = this.getTime(high);
+        return this.getPose(low).interpolate(this.getPose(high), (time - start) / (end - start));
+    }
+
+    /**
+     * Estimates the velocity from the change in pose over a window ending at the given time, which
+     * averages out the noise of differentiating a single tick.
+     *
+     * @param time The end of the window in seconds.
+     * @param window The length of the window in seconds.
+     * @return The field relative velocity, with the angular velocity in radians per second as the
+     *     rotation, or a zero velocity if the history is too short.
+     */
+    public Pose2d getVelocity(double time, double window) {
+        double end = Math.min(time, this.size == 0 ? time : this.getNewestTime());
+        double start = this.size == 0 ? end : Math.max(end - window, this.getOldestTime());
+        if (end - start <= 0)
+            return new Pose2d();
+
+        Pose2d startPose = this.getSample(start);
+        Pose2d endPose = this.getSample(end);
+        Twist2d twist = startPose.log(endPose);
+        double dt = end - start;
+
+        return new Pose2d(
+                endPose.getTranslation().minus(startPose.getTranslation()).div(dt),
+                Rotation2d.fromRadians(twist.dtheta / dt));
+    }
+
+    /**
+     * @param time The end of the window in seconds.
+     * @param window The length of each of the two velocity windows, in seconds.
+     * @return The change in speed between the window ending at the time and the one before it, in
+     *     meters per second squared.
+     */
+    public double getAcceleration(double time, double window) {
+        Translation2d velocity = this.getVelocity(time, window).getTranslation();
+        Translation2d lastVelocity = this.getVelocity(time - window, window).getTranslation();
+        return (velocity.getNorm() - lastVelocity.getNorm()) / window;
+    }
+
+    public void clear() {
+        this.head = 0;
+        this.size = 0;
+    }
+
+    private int slot(int index) {
+        return (this.head + index) % this.time.length;
+    }
+}
@@ -0,0 +1,89 @@
+package beziercurve;
+
+import math.geometry.Pose2d;
+import math.geometry.Rotation2d;
+import math.geometry.Translation2d;
+
+/**
+ * Pure-pursuit steering for the holonomic robot: the robot is steered towards a point a speed
+ * dependent arc length ahead of its projection on the path. The projection is searched around the
+ * previous one, so a tick only touches a few samples of the curve's {@link ArcLengthTable}.
+ */
+public class PurePursuit {
+    private final BezierCurve bezierCurve;
+    private final Constants constants;
+
+    private final PathProjection projection;
+
+    private double lookaheadDistance = 0;
+    private Translation2d lookahead = new Translation2d();
+
+    public PurePursuit(BezierCurve bezierCurve, Constants constants) {
+        this.bezierCurve = bezierCurve;
+        this.constants = constants;
+        this.projection = new PathProjection(bezierCurve, constants.searchWindow);
+    }
+
+    /**
+     * Updates the projection and the lookahead point for the current robot position.
+     *
+     * @param robot The robot's position.
+     * @param speed The robot's current speed, used to scale the lookahead distance.
+     * @return The t of the projected robot position on the curve.
+     */
+    public double update(Translation2d robot, double speed) {
+        ArcLengthTable table = this.bezierCurve.getArcLengthTable();
+        this.lookaheadDistance = Math.max(this.constants.minLookahead,
+                Math.min(this.constants.minLookahead + this.constants.lookaheadGain * speed, this.constants.maxLookahead));
+        double projectedDistance = this.projection.update(robot, this.lookaheadDistance);
+        this.lookahead = table.getLocation(Math.min(projectedDistance + this.lookaheadDistance, table.getLength()));
+
+        return table.getT(projectedDistance);
+    }
+
+    /**
+     * Returns the velocity that drives the robot towards the lookahead point. Once the lookahead point
+     * reaches the end of the path, the speed is also limited so the robot can still stop at the end.
+     *
+     * @param robot The robot's position.
+     * @param velocity The requested speed along the path.
+     * @param omega The requested angular velocity in degrees per second.
+     * @return The velocity of the robot.
+     */
+    public Pose2d calculate(Translation2d robot, double velocity, double omega) {
+        Translation2d toLookahead = this.lookahead.minus(robot);
+        Rotation2d direction = toLookahead.getNorm() > 1e-9
+                ? toLookahead.getAngle()
+                : this.bezierCurve.getAngle(this.projection.getT());
+
+        if (this.projection.getDistance() + this.lookaheadDistance >= this.bezierCurve.getArcLengthTable().getLength()) {
+            velocity = Math.min(velocity, Math.sqrt(2 * this.bezierCurve.getConstants().maxAccel() * toLookahead.getNorm()));
+        }
+
+        return new Pose2d(new Translation2d(velocity, direction), Rotation2d.fromDegrees(omega));
+    }
+
+    public void reset() {
+        this.projection.reset();
+    }
+
+    public double getProjectedDistance() {
+        return this.projection.getDistance();
+    }
+
+    public double getLookaheadDistance() {
+        return lookaheadDistance;
+    }
+
+    public Translation2d getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * @param minLookahead The lookahead distance when standing still, in meters.
+     * @param maxLookahead The largest lookahead distance, in meters.
+     * @param lookaheadGain How much the lookahead grows per meter per second of speed, in seconds.
+     * @param searchWindow How many table samples to check behind the previous projection.
+     */
+    public record Constants(double minLookahead, double maxLookahead, double lookaheadGain, int searchWindow) {}
+}
@@ -0,0 +1,106 @@
+package beziercurve;
+
+import math.geometry.Pose2d;
+import math.geometry.Rotation2d;
+import math.geometry.Translation2d;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A seeded {@link Disturbance} with control latency, velocity tracking lag, wheel slip, heading
+ * drift and sensor noise.
+ *
+ * <p>All randomness comes from one {@link SplittableRandom}, so the same seed always gives the same
+ * run. {@link #split()} hands every parallel run its own independent generator, which keeps a batch
+ * of runs reproducible no matter how the runs are scheduled on threads.
+ */
+public class RandomDisturbance implements Disturbance {
+    private static final Pose2d STOPPED = new Pose2d();
+
+    private final Constants constants;
+    private final SplittableRandom random;
+
+    private final Pose2d[] commands;
+    private int commandIndex = 0;
+
+    public RandomDisturbance(Constants constants, long seed) {
+        this(constants, new SplittableRandom(seed));
+    }
+
+    private RandomDisturbance(Constants constants, SplittableRandom random) {
+        this.constants = constants;
+        this.random = random;
+        this.commands = new Pose2d[Math.max(constants.latencyTicks, 0) + 1];
+        this.reset();
+    }
+
+    /**
+     * @return A disturbance with the same constants and a generator split off this one's.
+     */
+    public RandomDisturbance split() {
+        return new RandomDisturbance(this.constants, this.random.split());
+    }
+
+    /**
+     * Forgets the commands still in flight.
+     */
+    public void reset() {
+        Arrays.fill(this.commands, STOPPED);
+        this.commandIndex = 0;
+    }
+
+    @Override
+    public Pose2d actuate(Pose2d command, Pose2d lastVelocity, double period) {
+        // The command from latencyTicks ago is the one reaching the motors now
+        this.commands[this.commandIndex] = command;
+        this.commandIndex = (this.commandIndex + 1) % this.commands.length;
+        Pose2d delayed = this.commands[this.commandIndex];
+
+        if (this.constants.lagTimeConstant <= 0)
+            return delayed;
+
+        double response = 1 - Math.exp(-period / this.constants.lagTimeConstant);
+        return new Pose2d(
+                lastVelocity.getX() + (delayed.getX() - lastVelocity.getX()) * response,
+                lastVelocity.getY() + (delayed.getY() - lastVelocity.getY()) * response,
+                Rotation2d.fromDegrees(lastVelocity.getRotation().getDegrees()
+                        + (delayed.getRotation().getDegrees() - lastVelocity.getRotation().getDegrees()) * response));
+    }
+
+    @Override
+    public Pose2d perturb(Pose2d start, Pose2d end, double period) {
+        double slip = Math.max(0, Math.min(this.constants.slip + this.constants.slipStdDev * this.random.nextGaussian(), 1));
+        double drift = this.constants.headingDriftRate * period
+                + this.constants.headingDriftStdDev * Math.sqrt(period) * this.random.nextGaussian();
+
+        Translation2d moved = end.getTranslation().minus(start.getTranslation()).times(1 - slip);
+        return new Pose2d(start.getTranslation().plus(moved), end.getRotation().plus(Rotation2d.fromRadians(drift)));
+    }
+
+    @Override
+    public Pose2d measure(Pose2d pose) {
+        return new Pose2d(
+                pose.getX() + this.constants.positionNoiseStdDev * this.random.nextGaussian(),
+                pose.getY() + this.constants.positionNoiseStdDev * this.random.nextGaussian(),
+                pose.getRotation().plus(Rotation2d.fromRadians(this.constants.headingNoiseStdDev * this.random.nextGaussian())));
+    }
+
+    public Constants getConstants() {
+        return constants;
+    }
+
+    /**
+     * @param latencyTicks How many ticks a command takes to reach the motors.
+     * @param lagTimeConstant The time constant of the velocity's response to a command, in seconds, or 0 for none.
+     * @param slip The mean fraction of every tick's motion lost to wheel slip.
+     * @param slipStdDev The standard deviation of the slip fraction.
+     * @param headingDriftRate The mean heading drift, in radians per second.
+     * @param headingDriftStdDev The random walk of the heading, in radians per root second.
+     * @param positionNoiseStdDev The standard deviation of a measured position, in meters.
+     * @param headingNoiseStdDev The standard deviation of a measured heading, in radians.
+     */
+    public record Constants(int latencyTicks, double lagTimeConstant, double slip, double slipStdDev,
+                            double headingDriftRate, double headingDriftStdDev,
+                            double positionNoiseStdDev, double headingNoiseStdDev) {}
+}
@@ -0,0 +1,95 @@
+package beziercurve;
+
+import java.util.Arrays;
+
+/**
+ * Which robot holds each grid cell in each time slot, as a dense array over a bounded area and
+ * horizon, so neither reserving nor checking allocates. A cell's slots are next to each other, so a
+ * robot parked in a cell for many slots, or a check of the slots around a slot, stays in a few
+ * cache lines.
+ */
+public class ReservationTable {
+    private static final int FREE = -1;
+
+    private final int minCellX;
+    private final int minCellY;
+    private final int width;
+    private final int height;
+    private final int slots;
+
+    /** The robot holding every (cell x, cell y, slot), plus one so a new array is all free. */
+    private final int[] holders;
+    private int size = 0;
+
+    /**
+     * @param minCellX The lowest cell x that can be reserved.
+     * @param minCellY The lowest cell y that can be reserved.
+     * @param width How many cells along x can be reserved.
+     * @param height How many cells along y can be reserved.
+     * @param slots How many slots from the first can be reserved.
+     */
+    public ReservationTable(int minCellX, int minCellY, int width, int height, int slots) {
+        this.minCellX = minCellX;
+        this.minCellY = minCellY;
+        this.width = width;
+        this.height = height;
+        this.slots = slots;
+        this.holders = new int[Math.multiplyExact(Math.multiplyExact(width, height), slots)];
+    }
+
+    /**
+     * Reserves a cell in a slot, unless another robot already holds it.
+     *
+     * @return Whether the robot holds the cell now.
+     */
+    public boolean reserve(int cellX, int cellY, int slot, int robot) {
+        int index = this.getIndex(cellX, cellY, slot);
+        if (index < 0)
+            throw new IndexOutOfBoundsException("Cell (" + cellX + ", " + cellY + ") in slot " + slot + " is outside the table");
+
+        int holder = this.holders[index] - 1;
+        if (holder != FREE)
+            return holder == robot;
+
+        this.holders[index] = robot + 1;
+        this.size++;
+        return true;
+    }
+
+    /**
+     * @return The index of the robot holding the cell in the slot, or -1 if it is free. Cells and
+     *     slots outside the table are always free.
+     */
+    public int get(int cellX, int cellY, int slot) {
+        int index = this.getIndex(cellX, cellY, slot);
+        return index < 0 ? FREE : this.holders[index] - 1;
+    }
+
+    /**
+     * @return Whether the cell in the slot is free or held by the given robot.
+     */
+    public boolean isFree(int cellX, int cellY, int slot, int robot) {
+        int holder = this.get(cellX, cellY, slot);
+        return holder == FREE || holder == robot;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(this.holders, 0);
+        this.size = 0;
+    }
+
+    /**
+     * @return The index of the cell in the slot, or -1 if it is outside the table.
+     */
+    private int getIndex(int cellX, int cellY, int slot) {
+        int x = cellX - this.minCellX;
+        int y = cellY - this.minCellY;
+        if (x < 0 || x >= this.width || y < 0 || y >= this.height || slot < 0 || slot >= this.slots)
+            return -1;
+        return (x * this.height + y) * this.slots + slot;
+    }
+}
@@ -1,61 +1,191 @@
 package beziercurve;
 
 import math.geometry.*;
+import util.Clock;
 
 public class Robot {
+    private static final double POSE_HISTORY_SECONDS = 2;
+    private static final double ACCELERATION_WINDOW = 0.1;
+
     private Pose2d position;
+    private Pose2d measuredPosition;
     private Pose2d velocity;
 
-    private Pose2d lastVelocity = new Pose2d();
-
     private final Constants constants;
+    private final PoseHistory poseHistory;
 
-    private double difference = 0;
-    private long lastUpdate = 0;
+    private Clock clock = Clock.SYSTEM;
+    private Disturbance disturbance = Disturbance.NONE;
 
     public Robot(Pose2d position, Constants constants) {
         this.position = position;
+        this.measuredPosition = position;
         this.velocity = new Pose2d();
         this.constants = constants;
+        this.poseHistory = new PoseHistory(POSE_HISTORY_SECONDS, constants.period);
     }
 
     public void drive(Pose2d velocity) {
-        this.lastVelocity = this.velocity;
-        this.difference = (System.currentTimeMillis() - this.lastUpdate) / 1000d;
-
         if (velocity.getTranslation().getNorm() > constants.maxVel) {
             velocity = new Pose2d(
                     new Translation2d(constants.maxVel, velocity.getTranslation().getAngle()),
                     velocity.getRotation());
         }
-
-        this.position = new Pose2d(
-                        this.position.getTranslation().plus(velocity.getTranslation().times(constants.period)),
-                this.position.getRotation().rotateBy(Rotation2d.fromDegrees(velocity.getRotation().getDegrees() * constants.period)));
+        velocity = this.disturbance.actuate(velocity, this.velocity, this.constants.period);
+
+        Pose2d start = this.position;
+        this.position = switch (this.constants.integrator) {
+            case EULER -> new Pose2d(
+                    this.position.getTranslation().plus(velocity.getTranslation().times(constants.period)),
+                    this.position.getRotation().rotateBy(Rotation2d.fromDegrees(velocity.getRotation().getDegrees() * constants.period)));
+            case TWIST -> this.integrateTwist(velocity);
+            case RK4 -> this.integrateRungeKutta(this.velocity, velocity);
+        };
+        this.position = this.disturbance.perturb(start, this.position, this.constants.period);
+        this.measuredPosition = this.disturbance.measure(this.position);
         this.velocity = velocity;
 
-        this.lastUpdate = System.currentTimeMillis();
+        this.poseHistory.add(this.clock.getSeconds(), this.position);
+    }
+
+    /**
+     * Moves along the constant twist the velocity makes in the robot's frame at the start of the
+     * tick, which is exact however long the period is.
+     */
+    private Pose2d integrateTwist(Pose2d velocity) {
+        Translation2d robotRelative = velocity.getTranslation().rotateBy(this.position.getRotation().unaryMinus());
+        return this.position.exp(new Twist2d(
+                robotRelative.getX() * this.constants.period,
+                robotRelative.getY() * this.constants.period,
+                velocity.getRotation().getRadians() * this.constants.period));
+    }
+
+    /**
+     * Integrates the robot relative velocity as it ramps from the last command to the new one over
+     * the tick, with {@link Constants#substeps()} classic Runge-Kutta steps.
+     */
+    private Pose2d integrateRungeKutta(Pose2d lastVelocity, Pose2d velocity) {
+        Rotation2d toRobot = this.position.getRotation().unaryMinus();
+        Translation2d start = lastVelocity.getTranslation().rotateBy(toRobot);
+        Translation2d end = velocity.getTranslation().rotateBy(toRobot);
+
+        double startVx = start.getX(), startVy = start.getY(), startOmega = lastVelocity.getRotation().getRadians();
+        double deltaVx = end.getX() - startVx, deltaVy = end.getY() - startVy;
+        double deltaOmega = velocity.getRotation().getRadians() - startOmega;
+
+        double x = this.position.getX();
+        double y = this.position.getY();
+        double theta = this.position.getRotation().getRadians();
+
+        int steps = Math.max(1, this.constants.substeps);
+        double h = this.constants.period / steps;
+        for (int i = 0; i < steps; i++) {
+            // The ramp's fraction at the start, middle and end of the step
+            double s0 = (double) i / steps;
+            double s1 = (i + 0.5) / steps;
+            double s2 = (i + 1.0) / steps;
+
+            double vx0 = startVx + deltaVx * s0, vy0 = startVy + deltaVy * s0, w0 = startOmega + deltaOmega * s0;
+            double vx1 = startVx + deltaVx * s1, vy1 = startVy + deltaVy * s1, w1 = startOmega + deltaOmega * s1;
+            double vx2 = startVx + deltaVx * s2, vy2 = startVy + deltaVy * s2, w2 = startOmega + deltaOmega * s2;
+
+            double theta1 = theta;
+            double k1x = vx0 * Math.cos(theta1) - vy0 * Math.sin(theta1);
+            double k1y = vx0 * Math.sin(theta1) + vy0 * Math.cos(theta1);
+
+            double theta2 = theta + h / 2 * w0;
+            double k2x = vx1 * Math.cos(theta2) - vy1 * Math.sin(theta2);
+            double k2y = vx1 * Math.sin(theta2) + vy1 * Math.cos(theta2);
+
+            double theta3 = theta + h / 2 * w1;
+            double k3x = vx1 * Math.cos(theta3) - vy1 * Math.sin(theta3);
+            double k3y = vx1 * Math.sin(theta3) + vy1 * Math.cos(theta3);
+
+            double theta4 = theta + h * w1;
+            double k4x = vx2 * Math.cos(theta4) - vy2 * Math.sin(theta4);
+            double k4y = vx2 * Math.sin(theta4) + vy2 * Math.cos(theta4);
+
+            x += h / 6 * (k1x + 2 * k2x + 2 * k3x + k4x);
+            y += h / 6 * (k1y + 2 * k2y + 2 * k3y + k4y);
+            theta += h / 6 * (w0 + 4 * w1 + w2);
+        }
+
+        return new Pose2d(x, y, Rotation2d.fromRadians(theta));
     }
 
     public void setAngle(double degrees) {
         this.position = new Pose2d(this.position.getTranslation(), Rotation2d.fromDegrees(degrees));
+        this.measuredPosition = this.position;
     }
 
     public double getAcceleration() {
-        return (this.velocity.getTranslation().getNorm() - this.lastVelocity.getTranslation().getNorm()) / this.difference;
+        return this.poseHistory.getAcceleration(this.clock.getSeconds(), ACCELERATION_WINDOW);
     }
 
     public Pose2d getPosition() {
         return position;
     }
 
+    /**
+     * @return The pose as the robot's sensors see it, which is the true pose without a disturbance.
+     */
+    public Pose2d getMeasuredPosition() {
+        return measuredPosition;
+    }
+
     public void setPosition(Pose2d position) {
         this.position = position;
+        this.measuredPosition = position;
+        this.poseHistory.add(this.clock.getSeconds(), position);
     }
 
     public Pose2d getVelocity() {
         return velocity;
     }
 
-    public record Constants(double maxVel, double period) {}
+    public void setVelocity(Pose2d velocity) {
+        this.velocity = velocity;
+    }
+
+    public PoseHistory getPoseHistory() {
+        return poseHistory;
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = clock;
+        this.poseHistory.clear();
+    }
+
+    public Disturbance getDisturbance() {
+        return disturbance;
+    }
+
+    public void setDisturbance(Disturbance disturbance) {
+        this.disturbance = disturbance;
+    }
+
+    public Constants getConstants() {
+        return constants;
+    }
+
+    /**
+     * @param maxVel The fastest the robot can drive, in meters per second.
+     * @param period The length of a tick, in seconds.
+     * @param integrator How to move the robot over a tick.
+     * @param substeps How many steps {@link Integrator#RK4} takes per tick.
+     */
+    public record Constants(double maxVel, double period, Integrator integrator, int substeps) {
+        public Constants(double maxVel, double period) {
+            this(maxVel, period, Integrator.EULER, 1);
+        }
+    }
+
+    public enum Integrator {
+        /** Holds the field relative command for the whole tick, moving in a straight line. */
+        EULER,
+        /** Holds the command in the robot's frame, so the robot arcs while it turns. Exact for any period. */
+        TWIST,
+        /** Like {@link #TWIST}, but ramps from the last command to the new one over the tick. */
+        RK4
+    }
 }
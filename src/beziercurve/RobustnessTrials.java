@@ -0,0 +1,111 @@
+package beziercurve;
+
+import math.geometry.Pose2d;
+import math.geometry.Rotation2d;
+import util.SimulatedClock;
+
+import java.util.stream.IntStream;
+
+/**
+ * Runs many disturbed runs of one path on simulated clocks, as fast as the cores allow, and
+ * summarizes how well the follower held up.
+ *
+ * <p>Every trial gets its own disturbance split off the seeded one before any trial starts, so a
+ * batch gives the same results whether it runs sequentially or in parallel.
+ */
+public class RobustnessTrials {
+    private static final double FINISH_TOLERANCE = 0.1;
+
+    private final BezierCurve bezierCurve;
+    private final Robot.Constants robotConstants;
+    private final BezierFollower.Constants followerConstants;
+    private final BezierFollower.Mode mode;
+    private final RandomDisturbance disturbance;
+
+    public RobustnessTrials(BezierCurve bezierCurve, Robot.Constants robotConstants, BezierFollower.Constants followerConstants,
+                            BezierFollower.Mode mode, RandomDisturbance disturbance) {
+        this.bezierCurve = bezierCurve;
+        this.robotConstants = robotConstants;
+        this.followerConstants = followerConstants;
+        this.mode = mode;
+        this.disturbance = disturbance;
+    }
+
+    /**
+     * @param trials How many runs to simulate.
+     * @param timeout How many simulated seconds a run may take before it counts as unfinished.
+     * @param parallel Whether to spread the runs across cores.
+     * @return The summary of all runs.
+     */
+    public Result run(int trials, double timeout, boolean parallel) {
+        // Share the curve's tables between the trials instead of racing to build them
+        this.bezierCurve.getArcLengthTable();
+
+        RandomDisturbance[] disturbances = new RandomDisturbance[trials];
+        for (int i = 0; i < trials; i++) {
+            disturbances[i] = this.disturbance.split();
+        }
+
+        long start = System.nanoTime();
+        Trial[] results = new Trial[trials];
+        IntStream indices = IntStream.range(0, trials);
+        (parallel ? indices.parallel() : indices).forEach(i -> results[i] = this.runTrial(disturbances[i], timeout));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int finished = 0;
+        double totalTime = 0;
+        double totalCrossTrackError = 0;
+        double maxCrossTrackError = 0;
+        for (Trial trial : results) {
+            if (trial.finished) {
+                finished++;
+                totalTime += trial.time;
+            }
+            totalCrossTrackError += trial.maxCrossTrackError;
+            maxCrossTrackError = Math.max(maxCrossTrackError, trial.maxCrossTrackError);
+        }
+
+        return new Result(trials, finished, finished == 0 ? 0 : totalTime / finished,
+                trials == 0 ? 0 : totalCrossTrackError / trials, maxCrossTrackError, seconds);
+    }
+
+    private Trial runTrial(RandomDisturbance disturbance, double timeout) {
+        SimulatedClock clock = new SimulatedClock(0);
+        Robot robot = new Robot(new Pose2d(this.bezierCurve.getStartPoint(), Rotation2d.fromDegrees(this.followerConstants.startHeading())),
+                this.robotConstants);
+        robot.setClock(clock);
+        robot.setDisturbance(disturbance);
+
+        BezierFollower follower = new BezierFollower(this.bezierCurve, robot, this.followerConstants);
+        follower.setClock(clock);
+        follower.setMode(this.mode);
+        follower.start();
+
+        double period = this.robotConstants.period();
+        double maxCrossTrackError = 0;
+        for (double time = 0; time < timeout; time += period) {
+            clock.advance(period);
+            follower.update();
+
+            maxCrossTrackError = Math.max(maxCrossTrackError,
+                    robot.getPosition().getTranslation().getDistance(follower.getState().pose().getTranslation()));
+            if (robot.getPosition().getTranslation().getDistance(this.bezierCurve.getFinalPoint()) < FINISH_TOLERANCE
+                    && robot.getVelocity().getTranslation().getNorm() < FINISH_TOLERANCE)
+                return new Trial(true, time + period, maxCrossTrackError);
+        }
+        return new Trial(false, timeout, maxCrossTrackError);
+    }
+
+    private record Trial(boolean finished, double time, double maxCrossTrackError) {}
+
+    /**
+     * @param trials How many runs were simulated.
+     * @param finished How many runs stopped at the end of the path before the timeout.
+     * @param meanTime The mean time of the finished runs, in simulated seconds.
+     * @param meanCrossTrackError The mean of every run's largest distance from the path, in meters.
+     * @param maxCrossTrackError The largest distance from the path of any run, in meters.
+     * @param seconds How long the batch took, in real seconds.
+     */
+    public record Result(int trials, int finished, double meanTime, double meanCrossTrackError, double maxCrossTrackError,
+                         double seconds) {}
+}
@@ -0,0 +1,278 @@
+package beziercurve;
+
+import beziercurve.telemetry.TelemetryLog;
+import beziercurve.telemetry.TelemetryRecord;
+import gui.ImageCache;
+import gui.OffscreenRenderer;
+import gui.types.draw.DrawCentered;
+import gui.types.field.ZeroCenter;
+import math.MathUtil;
+import math.geometry.Dimension2d;
+import math.geometry.Pose2d;
+import math.geometry.Rotation2d;
+import math.geometry.Translation2d;
+import util.SimulatedClock;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+/**
+ * Draws a recorded or simulated run into PNG frames or a sprite sheet without a display, so runs
+ * can be reviewed from a build server. The frames are split into one contiguous range per worker,
+ * and every worker draws its range with its own renderer, so the workers share nothing but the
+ * run, the curve and the image cache.
+ */
+public class RunExporter {
+    private static final double PIXELS_IN_ONE_UNIT = FieldView.convertMaxValueToPixels(FieldView.MAX_VALUE);
+
+    private final BezierCurve bezierCurve;
+    private final PoseHistory run;
+    private final Translation2d[] trail;
+
+    private final ImageCache images = new ImageCache();
+
+    /**
+     * @param run The poses of the run. It must not be changed while exporting.
+     */
+    public RunExporter(BezierCurve bezierCurve, PoseHistory run) {
+        if (run.isEmpty())
+            throw new IllegalArgumentException("The run has no poses");
+
+        this.bezierCurve = bezierCurve;
+        this.run = run;
+        this.trail = new Translation2d[run.size()];
+        for (int i = 0; i < this.trail.length; i++) {
+            this.trail[i] = run.getPose(i).getTranslation();
+        }
+    }
+
+    /**
+     * Exports a run of the GUI's curve from the command line:
+     * {@code <output directory> [--log <path>] [--mode <mode>] [--seconds <s>] [--fps <fps>]
+     * [--workers <count>] [--sheet <columns>]}. Without a log the curve is followed in the mode for
+     * the given seconds. With {@code --sheet} one sprite sheet is written instead of the frames.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args.length % 2 == 0) {
+            System.err.println("Usage: RunExporter <output directory> [--log <path>] [--mode <mode>] [--seconds <s>]"
+                    + " [--fps <fps>] [--workers <count>] [--sheet <columns>]");
+            System.exit(2);
+        }
+
+        Path output = Path.of(args[0]);
+        Path log = null;
+        BezierFollower.Mode mode = BezierFollower.Mode.CLOSEST_POINT;
+        double seconds = 10;
+        double fps = 30;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int columns = 0;
+        for (int i = 1; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "--log" -> log = Path.of(args[i + 1]);
+                case "--mode" -> mode = BezierFollower.Mode.valueOf(args[i + 1]);
+                case "--seconds" -> seconds = Double.parseDouble(args[i + 1]);
+                case "--fps" -> fps = Double.parseDouble(args[i + 1]);
+                case "--workers" -> workers = Integer.parseInt(args[i + 1]);
+                case "--sheet" -> columns = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        BezierCurve bezierCurve = SimulationSetup.createCurve();
+        PoseHistory run = log != null
+                ? load(new TelemetryLog(log))
+                : simulate(bezierCurve, SimulationSetup.ROBOT_CONSTANTS, SimulationSetup.FOLLOWER_CONSTANTS, mode, seconds);
+        RunExporter exporter = new RunExporter(bezierCurve, run);
+
+        long start = System.nanoTime();
+        int frames;
+        if (columns > 0) {
+            Files.createDirectories(output);
+            frames = exporter.exportSpriteSheet(output.resolve("sheet.png"), fps, columns, 0.25, workers);
+        } else {
+            frames = exporter.exportFrames(output, fps, workers);
+        }
+        System.out.printf("Wrote %d frames to %s in %.1f s%n", frames, output.toAbsolutePath(), (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * @return The poses of a recorded run.
+     */
+    public static PoseHistory load(TelemetryLog log) {
+        PoseHistory run = new PoseHistory(Math.max(log.size(), 1));
+        for (int i = 0; i < log.size(); i++) {
+            run.add(log.getTime(i), log.get(i, TelemetryRecord.X), log.get(i, TelemetryRecord.Y),
+                    Math.toRadians(log.get(i, TelemetryRecord.HEADING)));
+        }
+        return run;
+    }
+
+    /**
+     * Follows the curve on a simulated clock, as fast as the thread allows.
+     *
+     * @param seconds How many simulated seconds to run for.
+     * @return The poses of the run, one for every robot period.
+     */
+    public static PoseHistory simulate(BezierCurve bezierCurve, Robot.Constants robotConstants,
+                                       BezierFollower.Constants followerConstants, BezierFollower.Mode mode, double seconds) {
+        SimulatedClock clock = new SimulatedClock(0);
+        Robot robot = new Robot(new Pose2d(bezierCurve.getStartPoint(), Rotation2d.fromDegrees(followerConstants.startHeading())),
+                robotConstants);
+        robot.setClock(clock);
+
+        BezierFollower follower = new BezierFollower(bezierCurve, robot, followerConstants);
+        follower.setClock(clock);
+        follower.setMode(mode);
+        follower.start();
+
+        double period = robotConstants.period();
+        int steps = (int) Math.round(seconds / period);
+        PoseHistory run = new PoseHistory(steps + 1);
+        run.add(0, robot.getPosition());
+        for (int step = 1; step <= steps; step++) {
+            clock.advance(period);
+            follower.update();
+            run.add(step * period, robot.getPosition());
+        }
+        return run;
+    }
+
+    /**
+     * @param fps How many frames to draw for every second of the run.
+     * @return How many frames the run takes.
+     */
+    public int getFrames(double fps) {
+        return (int) Math.floor((this.run.getNewestTime() - this.run.getOldestTime()) * fps) + 1;
+    }
+
+    /**
+     * Writes every frame of the run as a numbered PNG file.
+     *
+     * @param directory The directory to write the frames into, which is created if needed.
+     * @param fps How many frames to draw for every second of the run.
+     * @param workers How many frames to draw at once.
+     * @return How many frames were written.
+     */
+    public int exportFrames(Path directory, double fps, int workers) throws IOException {
+        Files.createDirectories(directory);
+        int frames = this.getFrames(fps);
+        this.render(frames, fps, workers, (renderer, frame) -> {
+            try {
+                renderer.writePng(directory.resolve(String.format("frame-%05d.png", frame)));
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+        return frames;
+    }
+
+    /**
+     * Writes every frame of the run as one PNG image of scaled down tiles, left to right and then
+     * top to bottom. The workers scale their own tiles; only the final copy into the sheet is done
+     * on the calling thread.
+     *
+     * @param fps How many frames to draw for every second of the run.
+     * @param columns How many tiles to put in a row.
+     * @param scale The size of a tile compared to a full frame.
+     * @param workers How many frames to draw at once.
+     * @return How many frames were written.
+     */
+    public int exportSpriteSheet(Path path, double fps, int columns, double scale, int workers) throws IOException {
+        int frames = this.getFrames(fps);
+        int tileWidth = Math.max(1, (int) (FieldView.DIMENSION.getX() * scale));
+        int tileHeight = Math.max(1, (int) (FieldView.DIMENSION.getY() * scale));
+
+        BufferedImage[] tiles = new BufferedImage[frames];
+        this.render(frames, fps, workers, (renderer, frame) -> {
+            BufferedImage tile = new BufferedImage(tileWidth, tileHeight, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = tile.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(renderer.render(), 0, 0, tileWidth, tileHeight, null);
+            g.dispose();
+            tiles[frame] = tile;
+        });
+
+        int rows = (frames + columns - 1) / columns;
+        BufferedImage sheet = new BufferedImage(tileWidth * Math.min(columns, frames), tileHeight * rows, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = sheet.createGraphics();
+        for (int i = 0; i < frames; i++) {
+            g.drawImage(tiles[i], (i % columns) * tileWidth, (i / columns) * tileHeight, null);
+        }
+        g.dispose();
+
+        if (!ImageIO.write(sheet, "png", path.toFile()))
+            throw new IOException("No PNG writer available");
+        return frames;
+    }
+
+    /**
+     * Draws every frame, splitting them into one contiguous range per worker.
+     *
+     * @param output Takes a worker's renderer once it has drawn the frame.
+     */
+    private void render(int frames, double fps, int workers, FrameOutput output) throws IOException {
+        int count = Math.max(1, Math.min(workers, frames));
+        try {
+            IntStream.range(0, count).parallel().forEach(worker -> {
+                FrameRenderer renderer = new FrameRenderer();
+                int end = (int) ((long) frames * (worker + 1) / count);
+                for (int frame = (int) ((long) frames * worker / count); frame < end; frame++) {
+                    renderer.drawFrame(this.run.getOldestTime() + frame / fps);
+                    output.accept(renderer, frame);
+                }
+            });
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    private interface FrameOutput {
+        void accept(FrameRenderer renderer, int frame);
+    }
+
+    private class FrameRenderer extends OffscreenRenderer implements ZeroCenter, DrawCentered {
+        private final CurvePath curvePath = new CurvePath(RunExporter.this.bezierCurve, () -> this.invalidateLayer(FieldView.PATH_LAYER));
+
+        private FrameRenderer() {
+            super(FieldView.DIMENSION, PIXELS_IN_ONE_UNIT);
+        }
+
+        private void drawFrame(double time) {
+            this.clear();
+            this.drawLayer(FieldView.FIELD_LAYER, this::drawField);
+            this.drawLayer(FieldView.PATH_LAYER, this::drawPath);
+
+            Pose2d pose = RunExporter.this.run.getSample(time);
+            int robotPixels = (int) convertUnits(SimulationSetup.ROBOT_WIDTH);
+            this.drawImage(RunExporter.this.images.getImage(FieldView.ROBOT_IMAGE, robotPixels, robotPixels),
+                    pose.getX(),
+                    pose.getY(),
+                    SimulationSetup.ROBOT_WIDTH, SimulationSetup.ROBOT_WIDTH,
+                    pose.getRotation().getDegrees());
+
+            double size = convertPixelsToUnits(20);
+            this.write(-FieldView.MAX_VALUE + convertPixelsToUnits(5), this.getDimensionWithUnits().getY() / 2 - (size + convertPixelsToUnits(10)),
+                    "Time: " + MathUtil.limitDot(time, 2) + " s", size, Color.BLACK);
+        }
+
+        private void drawField() {
+            Dimension2d dimension = FieldView.DIMENSION;
+            this.drawImage(RunExporter.this.images.getImage(FieldView.FIELD_IMAGE, dimension.getX(), dimension.getY()), 0, 0, dimension.getX(), dimension.getY());
+        }
+
+        private void drawPath() {
+            this.drawShape(this.curvePath.getShape(convertPixelsToUnits(1)), convertPixelsToUnits(4), Color.RED);
+            this.drawConnectedPoints(Color.ORANGE, convertPixelsToUnits(2), RunExporter.this.trail);
+
+            for (Translation2d waypoint : RunExporter.this.bezierCurve.getWaypoints()) {
+                this.fillPoint(waypoint.getX(), waypoint.getY(), convertPixelsToUnits(6), Color.BLUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package beziercurve;
+
+import beziercurve.pid.PIDPreset;
+import math.geometry.Pose2d;
+import math.geometry.Rotation2d;
+import math.geometry.Translation2d;
+
+/**
+ * The curve, robot and follower the GUI starts with, shared with the tools that run the same setup
+ * without a window, so a run recorded in the GUI can be replayed against them.
+ */
+public final class SimulationSetup {
+    public static final double CONTROL_FREQUENCY = 50;
+    public static final double ROBOT_WIDTH = 0.91;
+
+    public static final Robot.Constants ROBOT_CONSTANTS = new Robot.Constants(5, 1 / CONTROL_FREQUENCY);
+    public static final BezierFollower.Constants FOLLOWER_CONSTANTS = new BezierFollower.Constants(160, 0,
+            new PIDPreset(3.5, 0, 0, 1, 10),
+            new PIDPreset(5, 0, 0, 10, 100));
+
+    private SimulationSetup() {}
+
+    /**
+     * @return A new copy of the curve, which can be changed without changing anyone else's.
+     */
+    public static BezierCurve createCurve() {
+        return new BezierCurve(new BezierCurve.Constants(4.5, 4.5, 0.7),
+                new Translation2d(2, -3),
+                new Translation2d(-5, 2),
+                new Translation2d(-2, 1),
+                new Translation2d(-6, -2),
+                new Translation2d(3, 3),
+                new Translation2d(7, -1)
+        );
+    }
+
+    /**
+     * @return A robot at the start of the curve.
+     */
+    public static Robot createRobot(BezierCurve bezierCurve) {
+        return new Robot(new Pose2d(bezierCurve.getStartPoint(), Rotation2d.fromDegrees(0)), ROBOT_CONSTANTS);
+    }
+}
@@ -0,0 +1,72 @@
+package beziercurve;
+
+import math.geometry.Pose2d;
+import math.geometry.Rotation2d;
+import math.geometry.Translation2d;
+
+/**
+ * What the simulation looked like after a control tick, for a renderer on another thread. It also
+ * keeps the pose of the tick before, and when both were published, so the renderer can move the
+ * robot smoothly between the two at any frame rate, one tick behind the simulation.
+ *
+ * @param steps How many simulation steps ran so far.
+ * @param time The simulated time, in seconds.
+ * @param previousPose The robot's pose in the snapshot before.
+ * @param pose The robot's pose.
+ * @param velocity The robot's field relative velocity.
+ * @param acceleration The robot's acceleration, in meters per second squared.
+ * @param t The follower's position on the curve.
+ * @param previousPublishNanos When the snapshot before was published, in {@link System#nanoTime()}.
+ * @param publishNanos When this snapshot was published, in {@link System#nanoTime()}.
+ * @param follower What the follower was aiming at, for the overlays drawn over the robot.
+ */
+public record SimulationSnapshot(long steps, double time, Pose2d previousPose, Pose2d pose, Pose2d velocity,
+                                 double acceleration, double t, long previousPublishNanos, long publishNanos,
+                                 FollowerSnapshot follower) {
+    public static SimulationSnapshot of(Pose2d pose, FollowerSnapshot follower) {
+        long now = System.nanoTime();
+        return new SimulationSnapshot(0, 0, pose, pose, new Pose2d(), 0, 0, now, now, follower);
+    }
+
+    /**
+     * @return The next snapshot, which starts from this one.
+     */
+    public SimulationSnapshot next(long steps, double time, Pose2d pose, Pose2d velocity, double acceleration, double t,
+                                   FollowerSnapshot follower) {
+        return new SimulationSnapshot(steps, time, this.pose, pose, velocity, acceleration, t, this.publishNanos, System.nanoTime(),
+                follower);
+    }
+
+    /**
+     * @param nanos The time to draw the robot at, in {@link System#nanoTime()}.
+     * @return The pose between the previous pose and this one, as far along as the time is into the
+     *     interval after this snapshot, taking the interval between the two snapshots as its length.
+     */
+    public Pose2d getPose(long nanos) {
+        long interval = this.publishNanos - this.previousPublishNanos;
+        if (interval <= 0)
+            return this.pose;
+        return this.previousPose.interpolate(this.pose, (double) (nanos - this.publishNanos) / interval);
+    }
+
+    /**
+     * The follower's state after a control tick, copied so the renderer never reads the follower
+     * while the control thread updates it.
+     *
+     * @param mode The follower's mode.
+     * @param state The closest state on the curve.
+     * @param curvatureRadius The curve's curvature radius at the state.
+     * @param curveAngle The curve's direction at the state.
+     * @param driveSetpoint The drive controller's setpoint position.
+     * @param omegaSetpoint The heading controller's setpoint position, in degrees.
+     * @param lookahead The pure pursuit lookahead point, or null in other modes.
+     * @param prediction The positions the model predictive controller predicts, relative to the
+     *     robot, or null in other modes.
+     * @param estimate The estimated pose, or null when the follower does not use the estimator.
+     * @param estimateStdDev The standard deviation of the estimated position.
+     */
+    public record FollowerSnapshot(BezierFollower.Mode mode, BezierCurve.State state, double curvatureRadius,
+                                   Rotation2d curveAngle, double driveSetpoint, double omegaSetpoint,
+                                   Translation2d lookahead, Translation2d[] prediction, Pose2d estimate,
+                                   double estimateStdDev) {}
+}
@@ -0,0 +1,311 @@
+package beziercurve;
+
+import math.geometry.Pose2d;
+import math.geometry.Rotation2d;
+import util.SimulatedClock;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Steps many robots and their followers together on one simulated clock.
+ *
+ * <p>The robots' state lives in parallel primitive arrays rather than in {@link Robot}s holding
+ * poses. A tick first lets every follower compute its command, which the robot's view only writes
+ * into the command arrays, and then integrates all robots in one loop over those arrays. Both passes
+ * can be split into contiguous ranges of robots that run on separate cores; robots never read each
+ * other's state during a tick, so the result does not depend on the split.
+ */
+public class SimulationWorld {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Robot.Constants constants;
+    private final SimulatedClock clock = new SimulatedClock();
+
+    private int size = 0;
+
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] theta = new double[INITIAL_CAPACITY];
+    private double[] vx = new double[INITIAL_CAPACITY];
+    private double[] vy = new double[INITIAL_CAPACITY];
+    private double[] omega = new double[INITIAL_CAPACITY];
+    private double[] commandX = new double[INITIAL_CAPACITY];
+    private double[] commandY = new double[INITIAL_CAPACITY];
+    private double[] commandOmega = new double[INITIAL_CAPACITY];
+    private double[] startDelay = new double[INITIAL_CAPACITY];
+    private boolean[] released = new boolean[INITIAL_CAPACITY];
+
+    private WorldRobot[] robots = new WorldRobot[INITIAL_CAPACITY];
+    private BezierFollower[] followers = new BezierFollower[INITIAL_CAPACITY];
+
+    private CollisionDetector collisionDetector;
+
+    private int ranges = 1;
+    private long ticks = 0;
+
+    /**
+     * @param constants The constants of every robot. {@link Robot.Integrator#RK4} integrates like
+     *     {@link Robot.Integrator#TWIST}, since the world keeps no per-robot command history.
+     */
+    public SimulationWorld(Robot.Constants constants) {
+        this.constants = constants;
+    }
+
+    /**
+     * Adds a robot at the start of the curve with a started follower.
+     *
+     * @return The index of the robot.
+     */
+    public int add(BezierCurve bezierCurve, BezierFollower.Constants followerConstants, BezierFollower.Mode mode) {
+        return this.add(bezierCurve, followerConstants, mode, 0, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Adds a robot at the start of the curve that follows the plan: it waits there for the plan's
+     * start delay before its follower starts, and then drives no faster than the plan's speed cap.
+     *
+     * @param plan The robot's plan, whose delay counts in simulated seconds from now.
+     * @return The index of the robot.
+     */
+    public int add(BezierCurve bezierCurve, PathCoordinator.Plan plan, BezierFollower.Constants followerConstants,
+                   BezierFollower.Mode mode) {
+        return this.add(bezierCurve, followerConstants, mode, plan.startDelay(), plan.maxVelocity());
+    }
+
+    private int add(BezierCurve bezierCurve, BezierFollower.Constants followerConstants, BezierFollower.Mode mode,
+                    double startDelay, double maxVelocity) {
+        if (this.size == this.x.length)
+            this.grow();
+
+        int index = this.size++;
+        this.x[index] = bezierCurve.getStartPoint().getX();
+        this.y[index] = bezierCurve.getStartPoint().getY();
+        this.theta[index] = Math.toRadians(followerConstants.startHeading());
+        this.startDelay[index] = this.getSeconds() + startDelay;
+        this.released[index] = startDelay <= 0;
+        this.robots[index] = new WorldRobot(index);
+
+        BezierFollower follower = new BezierFollower(bezierCurve, this.robots[index], followerConstants);
+        follower.setClock(this.clock);
+        follower.setMode(mode);
+        follower.setMaxVelocity(maxVelocity);
+        follower.start();
+        this.followers[index] = follower;
+        return index;
+    }
+
+    /**
+     * @param ranges How many contiguous ranges of robots to step in parallel, 1 to step on the calling thread.
+     */
+    public void setParallelism(int ranges) {
+        this.ranges = Math.max(1, ranges);
+    }
+
+    public void step() {
+        this.clock.advance(this.constants.period());
+
+        int ranges = Math.min(this.ranges, this.size);
+        if (ranges <= 1) {
+            this.control(0, this.size);
+            this.integrate(0, this.size);
+        } else {
+            IntStream.range(0, ranges).parallel().forEach(range -> {
+                int start = (int) ((long) this.size * range / ranges);
+                int end = (int) ((long) this.size * (range + 1) / ranges);
+                this.control(start, end);
+                this.integrate(start, end);
+            });
+        }
+        this.ticks++;
+
+        if (this.collisionDetector != null) {
+            this.collisionDetector.update(this);
+        }
+    }
+
+    /**
+     * @param seconds How many simulated seconds to step.
+     */
+    public void run(double seconds) {
+        long steps = Math.round(seconds / this.constants.period());
+        for (long i = 0; i < steps; i++) {
+            this.step();
+        }
+    }
+
+    private void control(int start, int end) {
+        double seconds = this.getSeconds();
+        for (int i = start; i < end; i++) {
+            if (!this.released[i]) {
+                if (seconds < this.startDelay[i])
+                    continue;
+                // Restart the profiles, which would otherwise have counted the wait as driving time
+                this.followers[i].start();
+                this.released[i] = true;
+            }
+            this.followers[i].update();
+        }
+    }
+
+    private void integrate(int start, int end) {
+        double period = this.constants.period();
+        double maxVel = this.constants.maxVel();
+        boolean euler = this.constants.integrator() == Robot.Integrator.EULER;
+
+        for (int i = start; i < end; i++) {
+            double vx = this.commandX[i];
+            double vy = this.commandY[i];
+            double speed = Math.hypot(vx, vy);
+            if (speed > maxVel) {
+                vx *= maxVel / speed;
+                vy *= maxVel / speed;
+            }
+            double omega = this.commandOmega[i];
+            double dtheta = omega * period;
+
+            if (euler || Math.abs(dtheta) < 1e-9) {
+                this.x[i] += vx * period;
+                this.y[i] += vy * period;
+            } else {
+                // The constant twist in the robot's frame is an arc, so the field relative chord is the
+                // velocity turned by half the rotation and scaled by the chord's ratio to the arc
+                double scale = Math.sin(dtheta / 2) / (dtheta / 2);
+                double cos = Math.cos(dtheta / 2);
+                double sin = Math.sin(dtheta / 2);
+                this.x[i] += (vx * cos - vy * sin) * scale * period;
+                this.y[i] += (vx * sin + vy * cos) * scale * period;
+            }
+            this.theta[i] += dtheta;
+
+            this.vx[i] = vx;
+            this.vy[i] = vy;
+            this.omega[i] = omega;
+        }
+    }
+
+    private void grow() {
+        int capacity = this.x.length * 2;
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.theta = Arrays.copyOf(this.theta, capacity);
+        this.vx = Arrays.copyOf(this.vx, capacity);
+        this.vy = Arrays.copyOf(this.vy, capacity);
+        this.omega = Arrays.copyOf(this.omega, capacity);
+        this.commandX = Arrays.copyOf(this.commandX, capacity);
+        this.commandY = Arrays.copyOf(this.commandY, capacity);
+        this.commandOmega = Arrays.copyOf(this.commandOmega, capacity);
+        this.startDelay = Arrays.copyOf(this.startDelay, capacity);
+        this.released = Arrays.copyOf(this.released, capacity);
+        this.robots = Arrays.copyOf(this.robots, capacity);
+        this.followers = Arrays.copyOf(this.followers, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int index) {
+        return this.x[index];
+    }
+
+    public double getY(int index) {
+        return this.y[index];
+    }
+
+    /**
+     * @return The heading of the robot in radians, not wrapped.
+     */
+    public double getTheta(int index) {
+        return this.theta[index];
+    }
+
+    public double getSpeed(int index) {
+        return Math.hypot(this.vx[index], this.vy[index]);
+    }
+
+    public Robot getRobot(int index) {
+        return this.robots[index];
+    }
+
+    public BezierFollower getFollower(int index) {
+        return this.followers[index];
+    }
+
+    /**
+     * @param collisionDetector The detector to update after every tick, or null for none.
+     */
+    public void setCollisionDetector(CollisionDetector collisionDetector) {
+        this.collisionDetector = collisionDetector;
+    }
+
+    public CollisionDetector getCollisionDetector() {
+        return collisionDetector;
+    }
+
+    public SimulatedClock getClock() {
+        return clock;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public double getSeconds() {
+        return this.ticks * this.constants.period();
+    }
+
+    /**
+     * The robot a follower in the world drives: it reads its pose from the world's arrays, and a drive
+     * only stores the command until the world integrates it.
+     */
+    private class WorldRobot extends Robot {
+        private final int index;
+
+        private WorldRobot(int index) {
+            super(new Pose2d(), SimulationWorld.this.constants);
+            this.index = index;
+        }
+
+        @Override
+        public void drive(Pose2d velocity) {
+            commandX[this.index] = velocity.getX();
+            commandY[this.index] = velocity.getY();
+            commandOmega[this.index] = velocity.getRotation().getRadians();
+        }
+
+        @Override
+        public Pose2d getPosition() {
+            return new Pose2d(x[this.index], y[this.index], Rotation2d.fromRadians(theta[this.index]));
+        }
+
+        @Override
+        public Pose2d getMeasuredPosition() {
+            return this.getPosition();
+        }
+
+        @Override
+        public void setPosition(Pose2d position) {
+            x[this.index] = position.getX();
+            y[this.index] = position.getY();
+            theta[this.index] = position.getRotation().getRadians();
+        }
+
+        @Override
+        public void setAngle(double degrees) {
+            theta[this.index] = Math.toRadians(degrees);
+        }
+
+        @Override
+        public Pose2d getVelocity() {
+            return new Pose2d(vx[this.index], vy[this.index], Rotation2d.fromRadians(omega[this.index]));
+        }
+
+        @Override
+        public void setVelocity(Pose2d velocity) {
+            vx[this.index] = velocity.getX();
+            vy[this.index] = velocity.getY();
+            omega[this.index] = velocity.getRotation().getRadians();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package beziercurve.pid;
+
+/**
+ * A one-dimensional motion profile from an initial state to a goal state.
+ *
+ * <p>Profiles are immutable once constructed; all of the phase timing is solved up front so that
+ * {@link #calculate(double)} is a constant-time evaluation.
+ */
+public interface MotionProfile {
+    /**
+     * Calculate the position and velocity for the profile at a time t where the beginning of the
+     * profile was at time t = 0.
+     *
+     * @param t The time since the beginning of the profile.
+     * @return The position and velocity of the profile at time t.
+     */
+    TrapezoidProfile.State calculate(double t);
+
+    /**
+     * Returns the total time the profile takes to reach the goal.
+     *
+     * @return The total time the profile takes to reach the goal.
+     */
+    double totalTime();
+
+    /**
+     * Returns true if the profile has reached the goal.
+     *
+     * @param t The time since the beginning of the profile.
+     * @return True if the profile has reached the goal.
+     */
+    default boolean isFinished(double t) {
+        return t >= totalTime();
+    }
+
+    /**
+     * Returns whether {@link ProfiledPIDController} plans the profile again from its setpoint on every
+     * update, evaluated at the time since the controller started, instead of only when its goal changes.
+     * A profile whose whole state is in its setpoint loses nothing by being planned again, but one that
+     * also tracks its acceleration would restart from zero acceleration every update.
+     *
+     * @return True if the profile is planned again on every update.
+     */
+    default boolean isPlannedEveryUpdate() {
+        return false;
+    }
+
+    /** Creates a profile between two states, used by {@link ProfiledPIDController} to plan the profile. */
+    @FunctionalInterface
+    interface Factory {
+        MotionProfile create(TrapezoidProfile.State goal, TrapezoidProfile.State initial);
+    }
+}
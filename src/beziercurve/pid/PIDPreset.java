@@ -6,13 +6,19 @@ public class PIDPreset {
     private final double kD;
     private final double maxVel;
     private final double maxAccel;
+    private final double maxJerk;
 
-    public PIDPreset(double kP, double kI, double kD, double maxVel, double maxAccel) {
+    public PIDPreset(double kP, double kI, double kD, double maxVel, double maxAccel, double maxJerk) {
         this.kP = kP;
         this.kI = kI;
         this.kD = kD;
         this.maxVel = maxVel;
         this.maxAccel = maxAccel;
+        this.maxJerk = maxJerk;
+    }
+
+    public PIDPreset(double kP, double kI, double kD, double maxVel, double maxAccel) {
+        this(kP, kI, kD, maxVel, maxAccel, Double.POSITIVE_INFINITY);
     }
 
 
@@ -35,4 +41,18 @@ public class PIDPreset {
     public double getMaxAccel() {
         return maxAccel;
     }
+
+    public double getMaxJerk() {
+        return maxJerk;
+    }
+
+    public boolean isJerkLimited() {
+        return Double.isFinite(maxJerk);
+    }
+
+    public ProfiledPIDController createController() {
+        if (this.isJerkLimited())
+            return new ProfiledPIDController(kP, kI, kD, new SCurveProfile.Constraints(maxVel, maxAccel, maxJerk));
+        return new ProfiledPIDController(kP, kI, kD, new TrapezoidProfile.Constraints(maxVel, maxAccel));
+    }
 }
@@ -1,10 +1,12 @@
 package beziercurve.pid;
 
 import math.MathUtil;
+import util.Clock;
 
 /**
- * Implements a PID control loop whose setpoint is constrained by a trapezoid profile. Users should
- * call reset() when they first start running the controller to avoid unwanted behavior.
+ * Implements a PID control loop whose setpoint is constrained by a motion profile, either a
+ * {@link TrapezoidProfile} or a jerk-limited {@link SCurveProfile}. Users should call reset() when
+ * they first start running the controller to avoid unwanted behavior.
  */
 public class ProfiledPIDController {
     private static int instances;
@@ -14,8 +16,18 @@ public class ProfiledPIDController {
     private double m_maximumInput;
     private TrapezoidProfile.State m_goal = new TrapezoidProfile.State();
     private TrapezoidProfile.State m_setpoint = new TrapezoidProfile.State();
-    private TrapezoidProfile.Constraints m_constraints;
-
+    private MotionProfile.Factory m_profileFactory;
+    // The constraints the factory was built from, so setting the same ones again keeps the profile
+    private TrapezoidProfile.Constraints m_trapezoidConstraints;
+    private SCurveProfile.Constraints m_sCurveConstraints;
+
+    // The profile is planned from the setpoint and followed from there until the profile asks to be planned again
+    private MotionProfile m_profile;
+    private TrapezoidProfile.State m_profileGoal;
+    private long m_profileStart;
+
+    private Clock m_clock = Clock.SYSTEM;
+    private boolean m_started;
     private long initTime;
 
     /**
@@ -43,7 +55,38 @@ public class ProfiledPIDController {
     public ProfiledPIDController(
             double Kp, double Ki, double Kd, TrapezoidProfile.Constraints constraints, double period) {
         m_controller = new PIDController(Kp, Ki, Kd, period);
-        m_constraints = constraints;
+        setConstraints(constraints);
+        instances++;
+    }
+
+    /**
+     * Allocates a ProfiledPIDController with the given constants for Kp, Ki, and Kd whose setpoint
+     * follows a jerk-limited profile.
+     *
+     * @param Kp The proportional coefficient.
+     * @param Ki The integral coefficient.
+     * @param Kd The derivative coefficient.
+     * @param constraints Velocity, acceleration and jerk constraints for goal.
+     */
+    public ProfiledPIDController(
+            double Kp, double Ki, double Kd, SCurveProfile.Constraints constraints) {
+        this(Kp, Ki, Kd, constraints, 0.02);
+    }
+
+    /**
+     * Allocates a ProfiledPIDController with the given constants for Kp, Ki, and Kd whose setpoint
+     * follows a jerk-limited profile.
+     *
+     * @param Kp The proportional coefficient.
+     * @param Ki The integral coefficient.
+     * @param Kd The derivative coefficient.
+     * @param constraints Velocity, acceleration and jerk constraints for goal.
+     * @param period The period between controller updates in seconds. The default is 0.02 seconds.
+     */
+    public ProfiledPIDController(
+            double Kp, double Ki, double Kd, SCurveProfile.Constraints constraints, double period) {
+        m_controller = new PIDController(Kp, Ki, Kd, period);
+        setConstraints(constraints);
         instances++;
     }
 
@@ -185,7 +228,42 @@ public class ProfiledPIDController {
      * @param constraints Velocity and acceleration constraints for goal.
      */
     public void setConstraints(TrapezoidProfile.Constraints constraints) {
-        m_constraints = constraints;
+        TrapezoidProfile.Constraints current = m_trapezoidConstraints;
+        if (current != null && current.maxVelocity == constraints.maxVelocity
+                && current.maxAcceleration == constraints.maxAcceleration)
+            return;
+        setProfileFactory((goal, initial) -> new TrapezoidProfile(constraints, goal, initial));
+        m_trapezoidConstraints = constraints;
+    }
+
+    /**
+     * Set velocity, acceleration and jerk constraints for goal, switching to a jerk-limited profile.
+     *
+     * @param constraints Velocity, acceleration and jerk constraints for goal.
+     */
+    public void setConstraints(SCurveProfile.Constraints constraints) {
+        SCurveProfile.Constraints current = m_sCurveConstraints;
+        if (current != null && current.maxVelocity == constraints.maxVelocity
+                && current.maxAcceleration == constraints.maxAcceleration && current.maxJerk == constraints.maxJerk)
+            return;
+        setProfileFactory((goal, initial) -> new SCurveProfile(constraints, goal, initial));
+        m_sCurveConstraints = constraints;
+    }
+
+    /**
+     * Sets the profile used to constrain the setpoint.
+     *
+     * @param profileFactory Creates the profile from the goal and the current setpoint.
+     */
+    public void setProfile(MotionProfile.Factory profileFactory) {
+        setProfileFactory(profileFactory);
+    }
+
+    private void setProfileFactory(MotionProfile.Factory profileFactory) {
+        m_profileFactory = profileFactory;
+        m_trapezoidConstraints = null;
+        m_sCurveConstraints = null;
+        m_profile = null;
     }
 
     /**
@@ -301,17 +379,34 @@ public class ProfiledPIDController {
             m_setpoint.position = setpointMinDistance + measurement;
         }
 
-        if (initTime == 0) {
-            initTime = System.currentTimeMillis();
+        if (!m_started) {
+            initTime = m_clock.nanoTime();
+            m_started = true;
         }
 
-        var profile = new TrapezoidProfile(m_constraints, m_goal, m_setpoint);
-        m_setpoint = profile.calculate(getTime());
+        long now = m_clock.nanoTime();
+        if (m_profile == null || m_profile.isPlannedEveryUpdate() || !m_goal.equals(m_profileGoal)) {
+            m_profile = m_profileFactory.create(m_goal, m_setpoint);
+            m_profileGoal = new TrapezoidProfile.State(m_goal.position, m_goal.velocity);
+            m_profileStart = m_profile.isPlannedEveryUpdate() ? initTime : now;
+        }
+        m_setpoint = m_profile.calculate((now - m_profileStart) / 1e9);
         return m_controller.calculate(measurement, m_setpoint.position);
     }
 
     public double getTime() {
-        return (System.currentTimeMillis() - this.initTime) / 1000d;
+        return (m_clock.nanoTime() - this.initTime) / 1e9;
+    }
+
+    /**
+     * Sets the clock the profile time is measured with.
+     *
+     * @param clock The clock, {@link Clock#SYSTEM} by default.
+     */
+    public void setClock(Clock clock) {
+        m_clock = clock;
+        m_started = false;
+        m_profile = null;
     }
 
     /**
@@ -361,7 +456,8 @@ public class ProfiledPIDController {
         m_controller.reset();
         m_setpoint = measurement;
 
-        this.initTime = 0;
+        m_started = false;
+        m_profile = null;
     }
 
     /**
@@ -0,0 +1,220 @@
+package beziercurve.pid;
+
+/**
+ * A jerk-limited (S-curve) velocity profile.
+ *
+ * <p>Unlike {@link TrapezoidProfile}, the acceleration of this profile is continuous: it ramps up
+ * and down at no more than the maximum jerk instead of jumping between zero and the maximum
+ * acceleration. The profile is split into up to seven phases (jerk up, constant acceleration, jerk
+ * down, cruise, and the mirrored deceleration phases). The phase durations and the state at the
+ * start of every phase are solved once at construction, so {@link #calculate(double)} only has to
+ * pick the current phase and evaluate a cubic.
+ *
+ * <p>The profile assumes zero acceleration at both ends. If the goal is too close to be reached
+ * without overshooting from the initial velocity, the profile decelerates as fast as it can and
+ * snaps to the goal once {@link #totalTime()} has passed.
+ */
+public class SCurveProfile implements MotionProfile {
+    private static final int PHASES = 7;
+    private static final int PEAK_VELOCITY_ITERATIONS = 50;
+
+    // The direction of the profile, either 1 for forwards or -1 for inverted
+    private final int m_direction;
+
+    private final Constraints m_constraints;
+    private final TrapezoidProfile.State m_initial;
+    private final TrapezoidProfile.State m_goal;
+
+    private final double[] m_phaseStart = new double[PHASES + 1];
+    private final double[] m_jerk = new double[PHASES];
+    private final double[] m_position = new double[PHASES];
+    private final double[] m_velocity = new double[PHASES];
+    private final double[] m_acceleration = new double[PHASES];
+
+    public static class Constraints {
+        public final double maxVelocity;
+
+        public final double maxAcceleration;
+
+        public final double maxJerk;
+
+        /**
+         * Construct constraints for an SCurveProfile.
+         *
+         * @param maxVelocity maximum velocity
+         * @param maxAcceleration maximum acceleration
+         * @param maxJerk maximum jerk
+         */
+        public Constraints(double maxVelocity, double maxAcceleration, double maxJerk) {
+            this.maxVelocity = maxVelocity;
+            this.maxAcceleration = maxAcceleration;
+            this.maxJerk = maxJerk;
+        }
+    }
+
+    /**
+     * Construct an SCurveProfile.
+     *
+     * @param constraints The constraints on the profile, like maximum velocity and jerk.
+     * @param goal The desired state when the profile is complete.
+     * @param initial The initial state (usually the current state).
+     */
+    public SCurveProfile(Constraints constraints, TrapezoidProfile.State goal, TrapezoidProfile.State initial) {
+        m_direction = initial.position > goal.position ? -1 : 1;
+        m_constraints = constraints;
+        m_initial = direct(initial);
+        m_goal = direct(goal);
+
+        m_initial.velocity = Math.min(m_initial.velocity, m_constraints.maxVelocity);
+        double goalVelocity = Math.min(m_goal.velocity, m_constraints.maxVelocity);
+
+        double distance = m_goal.position - m_initial.position;
+        double peakVelocity = m_constraints.maxVelocity;
+        double cruiseTime = 0;
+
+        double fullSpeedRampDistance = rampDistance(m_initial.velocity, peakVelocity) + rampDistance(peakVelocity, goalVelocity);
+        if (fullSpeedRampDistance <= distance) {
+            cruiseTime = (distance - fullSpeedRampDistance) / peakVelocity;
+        } else {
+            // The ramp distance grows monotonically with the peak velocity, so bisect for the peak
+            // velocity that covers the distance exactly without a cruise phase
+            double low = Math.max(0, Math.max(m_initial.velocity, goalVelocity));
+            double high = peakVelocity;
+            if (rampDistance(m_initial.velocity, low) + rampDistance(low, goalVelocity) >= distance) {
+                high = low;
+            }
+            for (int i = 0; i < PEAK_VELOCITY_ITERATIONS && high - low > 1e-9; i++) {
+                double mid = (low + high) / 2;
+                if (rampDistance(m_initial.velocity, mid) + rampDistance(mid, goalVelocity) > distance) {
+                    high = mid;
+                } else {
+                    low = mid;
+                }
+            }
+            peakVelocity = high;
+        }
+
+        setRampPhases(0, m_initial.velocity, peakVelocity);
+        m_jerk[3] = 0;
+        m_phaseStart[4] = m_phaseStart[3] + cruiseTime;
+        setRampPhases(4, peakVelocity, goalVelocity);
+
+        m_position[0] = m_initial.position;
+        m_velocity[0] = m_initial.velocity;
+        for (int i = 0; i < PHASES - 1; i++) {
+            double dt = m_phaseStart[i + 1] - m_phaseStart[i];
+            m_position[i + 1] = m_position[i]
+                    + m_velocity[i] * dt + m_acceleration[i] * dt * dt / 2 + m_jerk[i] * dt * dt * dt / 6;
+            m_velocity[i + 1] = m_velocity[i] + m_acceleration[i] * dt + m_jerk[i] * dt * dt / 2;
+        }
+    }
+
+    /**
+     * Construct an SCurveProfile.
+     *
+     * @param constraints The constraints on the profile, like maximum velocity and jerk.
+     * @param goal The desired state when the profile is complete.
+     */
+    public SCurveProfile(Constraints constraints, TrapezoidProfile.State goal) {
+        this(constraints, goal, new TrapezoidProfile.State(0, 0));
+    }
+
+    /**
+     * Calculate the correct position and velocity for the profile at a time t where the beginning of
+     * the profile was at time t = 0.
+     *
+     * @param t The time since the beginning of the profile.
+     * @return The position and velocity of the profile at time t.
+     */
+    @Override
+    public TrapezoidProfile.State calculate(double t) {
+        if (t >= totalTime()) {
+            return direct(m_goal);
+        }
+
+        int phase = 0;
+        while (phase < PHASES - 1 && t >= m_phaseStart[phase + 1]) {
+            phase++;
+        }
+
+        double dt = Math.max(t - m_phaseStart[phase], 0);
+        return direct(new TrapezoidProfile.State(
+                m_position[phase] + m_velocity[phase] * dt + m_acceleration[phase] * dt * dt / 2 + m_jerk[phase] * dt * dt * dt / 6,
+                m_velocity[phase] + m_acceleration[phase] * dt + m_jerk[phase] * dt * dt / 2));
+    }
+
+    /**
+     * Returns the acceleration of the profile at time t.
+     *
+     * @param t The time since the beginning of the profile.
+     * @return The acceleration of the profile at time t.
+     */
+    public double calculateAcceleration(double t) {
+        if (t < 0 || t >= totalTime()) {
+            return 0;
+        }
+
+        int phase = 0;
+        while (phase < PHASES - 1 && t >= m_phaseStart[phase + 1]) {
+            phase++;
+        }
+        return (m_acceleration[phase] + m_jerk[phase] * (t - m_phaseStart[phase])) * m_direction;
+    }
+
+    @Override
+    public double totalTime() {
+        return m_phaseStart[PHASES];
+    }
+
+    // Fills three phases (jerk, constant acceleration, jerk) that take the velocity from start to end
+    private void setRampPhases(int firstPhase, double startVelocity, double endVelocity) {
+        double sign = Math.signum(endVelocity - startVelocity);
+        double jerkTime = rampJerkTime(startVelocity, endVelocity);
+        double totalTime = rampTime(startVelocity, endVelocity);
+        double peakAcceleration = jerkTime > 0
+                ? m_constraints.maxJerk * jerkTime
+                : m_constraints.maxAcceleration;
+
+        m_phaseStart[firstPhase + 1] = m_phaseStart[firstPhase] + jerkTime;
+        m_phaseStart[firstPhase + 2] = m_phaseStart[firstPhase + 1] + (totalTime - 2 * jerkTime);
+        m_phaseStart[firstPhase + 3] = m_phaseStart[firstPhase + 2] + jerkTime;
+
+        double jerk = jerkTime > 0 ? sign * peakAcceleration / jerkTime : 0;
+        m_jerk[firstPhase] = jerk;
+        m_jerk[firstPhase + 1] = 0;
+        m_jerk[firstPhase + 2] = -jerk;
+
+        m_acceleration[firstPhase] = jerkTime > 0 ? 0 : sign * peakAcceleration;
+        m_acceleration[firstPhase + 1] = sign * peakAcceleration;
+        m_acceleration[firstPhase + 2] = sign * peakAcceleration;
+    }
+
+    // Time spent ramping the acceleration up (and again down) while changing velocity
+    private double rampJerkTime(double startVelocity, double endVelocity) {
+        double velocityChange = Math.abs(endVelocity - startVelocity);
+        return Math.min(m_constraints.maxAcceleration / m_constraints.maxJerk, Math.sqrt(velocityChange / m_constraints.maxJerk));
+    }
+
+    private double rampTime(double startVelocity, double endVelocity) {
+        double velocityChange = Math.abs(endVelocity - startVelocity);
+        if (velocityChange == 0) {
+            return 0;
+        }
+
+        double jerkTime = rampJerkTime(startVelocity, endVelocity);
+        if (jerkTime == 0) {
+            return velocityChange / m_constraints.maxAcceleration;
+        }
+        return velocityChange / (m_constraints.maxJerk * jerkTime) + jerkTime;
+    }
+
+    // A ramp is symmetric in time, so it covers the average of its end velocities for its duration
+    private double rampDistance(double startVelocity, double endVelocity) {
+        return (startVelocity + endVelocity) / 2 * rampTime(startVelocity, endVelocity);
+    }
+
+    // Flip the sign of the velocity and position if the profile is inverted
+    private TrapezoidProfile.State direct(TrapezoidProfile.State in) {
+        return new TrapezoidProfile.State(in.position * m_direction, in.velocity * m_direction);
+    }
+}
@@ -36,7 +36,7 @@ import java.util.Objects;
  * <p>Otherwise, a timer can be started to provide monotonic values for `calculate()` and to
  * determine when the profile has completed via `isFinished()`.
  */
-public class TrapezoidProfile {
+public class TrapezoidProfile implements MotionProfile {
   // The direction of the profile, either 1 for forwards or -1 for inverted
   private int m_direction;
 
@@ -161,6 +161,7 @@ public class TrapezoidProfile {
    * @param t The time since the beginning of the profile.
    * @return The position and velocity of the profile at time t.
    */
+  @Override
   public State calculate(double t) {
     State result = new State(m_initial.position, m_initial.velocity);
 
@@ -270,6 +271,7 @@ public class TrapezoidProfile {
    *
    * @return The total time the profile takes to reach the goal.
    */
+  @Override
   public double totalTime() {
     return m_endDeccel;
   }
@@ -283,10 +285,22 @@ public class TrapezoidProfile {
    * @param t The time since the beginning of the profile.
    * @return True if the profile has reached the goal.
    */
+  @Override
   public boolean isFinished(double t) {
     return t >= totalTime();
   }
 
+  /**
+   * Returns true, since the profile's whole state is in its setpoint, so it is planned again on every
+   * update as described above.
+   *
+   * @return True.
+   */
+  @Override
+  public boolean isPlannedEveryUpdate() {
+    return true;
+  }
+
   /**
    * Returns true if the profile inverted.
    *
@@ -0,0 +1,83 @@
+package beziercurve.telemetry;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A preallocated single-producer, single-consumer ring of telemetry records.
+ *
+ * <p>The producer copies a record into the ring and publishes it with an ordered write of the head;
+ * the consumer copies whole records out and releases them the same way with the tail. Neither side
+ * locks or allocates. When the ring is full the new record is dropped and counted, so the control
+ * loop never waits for the disk.
+ */
+public class TelemetryBuffer {
+    private final double[] records;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param capacity How many records the ring holds, rounded up to a power of two.
+     */
+    public TelemetryBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.records = new double[size * TelemetryRecord.SIZE];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Copies a record into the ring. Must only be called from the producer thread.
+     *
+     * @param record The record, laid out as in {@link TelemetryRecord}.
+     * @return False if the ring was full and the record was dropped.
+     */
+    public boolean publish(double[] record) {
+        long head = this.head.get();
+        if (head - this.tail.get() > this.mask) {
+            this.dropped.incrementAndGet();
+            return false;
+        }
+
+        System.arraycopy(record, 0, this.records, (int) (head & this.mask) * TelemetryRecord.SIZE, TelemetryRecord.SIZE);
+        this.head.lazySet(head + 1);
+        return true;
+    }
+
+    /**
+     * Moves as many whole records as fit into the target buffer. Must only be called from the
+     * consumer thread.
+     *
+     * @param target The buffer to write the records into.
+     * @return How many records were moved.
+     */
+    public int drain(ByteBuffer target) {
+        long tail = this.tail.get();
+        long available = this.head.get() - tail;
+        int count = (int) Math.min(available, target.remaining() / TelemetryRecord.BYTES);
+
+        for (int i = 0; i < count; i++) {
+            int offset = (int) ((tail + i) & this.mask) * TelemetryRecord.SIZE;
+            for (int field = 0; field < TelemetryRecord.SIZE; field++) {
+                target.putDouble(this.records[offset + field]);
+            }
+        }
+
+        this.tail.lazySet(tail + count);
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return this.head.get() == this.tail.get();
+    }
+
+    public long getPublished() {
+        return this.head.get();
+    }
+
+    public long getDropped() {
+        return this.dropped.get();
+    }
+}
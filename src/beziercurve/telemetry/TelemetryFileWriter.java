@@ -0,0 +1,102 @@
+package beziercurve.telemetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drains a {@link TelemetryBuffer} to a binary log file on a background thread, through a large
+ * direct buffer so every write to the {@link FileChannel} moves thousands of records at once.
+ */
+public class TelemetryFileWriter implements AutoCloseable {
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final long IDLE_NANOS = 2_000_000;
+
+    private final TelemetryBuffer buffer;
+    private final FileChannel channel;
+    private final ByteBuffer output;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile IOException error;
+
+    private volatile long written = 0;
+
+    public TelemetryFileWriter(TelemetryBuffer buffer, Path path) throws IOException {
+        this.buffer = buffer;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.output = ByteBuffer.allocateDirect(BUFFER_BYTES).order(TelemetryRecord.BYTE_ORDER);
+
+        this.output.putInt(TelemetryRecord.MAGIC);
+        this.output.putInt(TelemetryRecord.VERSION);
+        this.output.putInt(TelemetryRecord.SIZE);
+        this.flush();
+
+        this.thread = new Thread(this::run, "Telemetry Writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            while (this.running) {
+                if (this.buffer.drain(this.output) > 0 && this.output.remaining() >= TelemetryRecord.BYTES) {
+                    continue;
+                }
+
+                if (this.output.position() > 0) {
+                    this.flush();
+                } else {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+            }
+
+            while (this.buffer.drain(this.output) > 0) {
+                this.flush();
+            }
+            this.flush();
+        } catch (IOException e) {
+            this.error = e;
+        }
+    }
+
+    private void flush() throws IOException {
+        this.output.flip();
+        this.written += this.output.remaining();
+        while (this.output.hasRemaining()) {
+            this.channel.write(this.output);
+        }
+        this.output.clear();
+    }
+
+    /**
+     * @return How many bytes were written so far, including the header.
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.running = false;
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            this.channel.force(false);
+        } finally {
+            this.channel.close();
+        }
+
+        if (this.error != null) {
+            throw this.error;
+        }
+    }
+}
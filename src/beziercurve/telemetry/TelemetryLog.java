@@ -0,0 +1,70 @@
+package beziercurve.telemetry;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A telemetry log written by {@link TelemetryFileWriter}, memory mapped so records are read straight
+ * from the page cache without copying the file. A single mapping limits a log to 2 GiB, which is
+ * over 20 million records.
+ */
+public class TelemetryLog {
+    private final MappedByteBuffer buffer;
+    private final int records;
+
+    public TelemetryLog(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        this.buffer.order(TelemetryRecord.BYTE_ORDER);
+
+        if (this.buffer.limit() < TelemetryRecord.HEADER_BYTES || this.buffer.getInt(0) != TelemetryRecord.MAGIC) {
+            throw new IOException(path + " is not a telemetry log");
+        }
+        if (this.buffer.getInt(Integer.BYTES) != TelemetryRecord.VERSION || this.buffer.getInt(2 * Integer.BYTES) != TelemetryRecord.SIZE) {
+            throw new IOException(path + " was written with an unsupported record layout");
+        }
+        this.records = (this.buffer.limit() - TelemetryRecord.HEADER_BYTES) / TelemetryRecord.BYTES;
+    }
+
+    public int size() {
+        return records;
+    }
+
+    /**
+     * @param index The index of the record.
+     * @param field The field, one of the {@link TelemetryRecord} constants.
+     * @return The value of the field in the record.
+     */
+    public double get(int index, int field) {
+        return this.buffer.getDouble(TelemetryRecord.HEADER_BYTES + index * TelemetryRecord.BYTES + field * Double.BYTES);
+    }
+
+    public double getTime(int index) {
+        return this.get(index, TelemetryRecord.TIME);
+    }
+
+    public double getDuration() {
+        return this.records == 0 ? 0 : this.getTime(this.records - 1);
+    }
+
+    /**
+     * @param time Seconds since the start of the log.
+     * @return The index of the last record at or before the given time, or 0 if there is none.
+     */
+    public int getIndex(double time) {
+        int low = 0;
+        int high = this.records - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (this.getTime(mid) <= time)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+}
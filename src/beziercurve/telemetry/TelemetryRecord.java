@@ -0,0 +1,39 @@
+package beziercurve.telemetry;
+
+import java.nio.ByteOrder;
+
+/**
+ * The layout of one telemetry record: a fixed number of doubles, one per field, in the order of the
+ * field constants. Log files start with a header of {@link #MAGIC}, {@link #VERSION} and
+ * {@link #SIZE} as ints, followed by the records, everything in {@link #BYTE_ORDER}.
+ */
+public final class TelemetryRecord {
+    private TelemetryRecord() {
+        throw new AssertionError("utility class");
+    }
+
+    public static final int MAGIC = 0x42435452;
+    public static final int VERSION = 1;
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    public static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    /** Seconds since the follower started. */
+    public static final int TIME = 0;
+    public static final int T = 1;
+    public static final int X = 2;
+    public static final int Y = 3;
+    /** Degrees. */
+    public static final int HEADING = 4;
+    public static final int VELOCITY_X = 5;
+    public static final int VELOCITY_Y = 6;
+    /** Degrees per second. */
+    public static final int OMEGA = 7;
+    public static final int DRIVE_SETPOINT = 8;
+    public static final int OMEGA_SETPOINT = 9;
+    public static final int DRIVE_ERROR = 10;
+    public static final int OMEGA_ERROR = 11;
+    public static final int CROSS_TRACK_ERROR = 12;
+
+    public static final int SIZE = 13;
+    public static final int BYTES = SIZE * Double.BYTES;
+}
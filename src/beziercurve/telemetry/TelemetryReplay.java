@@ -0,0 +1,116 @@
+package beziercurve.telemetry;
+
+import beziercurve.BezierFollower;
+import beziercurve.Robot;
+import math.geometry.Pose2d;
+import math.geometry.Rotation2d;
+import util.SimulatedClock;
+
+/**
+ * Reconstructs a recorded follower run from a {@link TelemetryLog}, tick by tick and on a simulated
+ * clock, either to show it again or to run another follower against exactly the same inputs.
+ */
+public class TelemetryReplay {
+    private final TelemetryLog log;
+
+    public TelemetryReplay(TelemetryLog log) {
+        this.log = log;
+    }
+
+    public TelemetryLog getLog() {
+        return log;
+    }
+
+    /**
+     * Moves the robot to the pose and velocity it had after the given tick.
+     *
+     * @param index The index of the record.
+     * @param robot The robot to move.
+     */
+    public void apply(int index, Robot robot) {
+        robot.setPosition(new Pose2d(
+                this.log.get(index, TelemetryRecord.X),
+                this.log.get(index, TelemetryRecord.Y),
+                Rotation2d.fromDegrees(this.log.get(index, TelemetryRecord.HEADING))));
+        robot.setVelocity(new Pose2d(
+                this.log.get(index, TelemetryRecord.VELOCITY_X),
+                this.log.get(index, TelemetryRecord.VELOCITY_Y),
+                Rotation2d.fromDegrees(this.log.get(index, TelemetryRecord.OMEGA))));
+    }
+
+    /**
+     * Moves the robot to where it was at the given time of the run.
+     *
+     * @param time Seconds since the start of the run.
+     * @param robot The robot to move.
+     * @return The index of the applied record.
+     */
+    public int applyAt(double time, Robot robot) {
+        int index = this.log.getIndex(time);
+        this.apply(index, robot);
+        return index;
+    }
+
+    /**
+     * Runs a follower against the recorded run: before every recorded tick the robot is put back
+     * where it was, the clock is set to the tick's time, and the follower's command is compared with
+     * the recorded one. The follower should be started on the same clock and must not be shared with
+     * a running control loop.
+     *
+     * @param follower The follower to compare, driving the given robot.
+     * @param robot The robot the follower drives.
+     * @param clock The clock the follower and the robot use.
+     * @return How far the follower's commands were from the recorded ones.
+     */
+    public Comparison compare(BezierFollower follower, Robot robot, SimulatedClock clock) {
+        long start = System.nanoTime();
+
+        double velocitySquares = 0;
+        double maxVelocityDifference = 0;
+        double omegaSquares = 0;
+        int ticks = 0;
+
+        if (this.log.size() > 0) {
+            clock.setSeconds(this.log.getTime(0));
+            this.apply(0, robot);
+        }
+        for (int i = 1; i < this.log.size(); i++) {
+            this.apply(i - 1, robot);
+            clock.setSeconds(this.log.getTime(i));
+            follower.update();
+
+            Pose2d command = robot.getVelocity();
+            double velocityDifference = Math.hypot(
+                    command.getX() - this.log.get(i, TelemetryRecord.VELOCITY_X),
+                    command.getY() - this.log.get(i, TelemetryRecord.VELOCITY_Y));
+            double omegaDifference = command.getRotation().getDegrees() - this.log.get(i, TelemetryRecord.OMEGA);
+
+            velocitySquares += velocityDifference * velocityDifference;
+            maxVelocityDifference = Math.max(maxVelocityDifference, velocityDifference);
+            omegaSquares += omegaDifference * omegaDifference;
+            ticks++;
+        }
+
+        return new Comparison(ticks,
+                ticks == 0 ? 0 : Math.sqrt(velocitySquares / ticks),
+                maxVelocityDifference,
+                ticks == 0 ? 0 : Math.sqrt(omegaSquares / ticks),
+                this.log.getDuration(),
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * @param ticks How many ticks were compared.
+     * @param rmsVelocityDifference The RMS of the difference between the velocity commands, in m/s.
+     * @param maxVelocityDifference The largest difference between the velocity commands, in m/s.
+     * @param rmsOmegaDifference The RMS of the difference between the omega commands, in deg/s.
+     * @param recordedSeconds How long the recorded run took.
+     * @param replaySeconds How long the replay took.
+     */
+    public record Comparison(int ticks, double rmsVelocityDifference, double maxVelocityDifference,
+                             double rmsOmegaDifference, double recordedSeconds, double replaySeconds) {
+        public double getSpeedup() {
+            return this.replaySeconds == 0 ? Double.POSITIVE_INFINITY : this.recordedSeconds / this.replaySeconds;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package checks;
+
+/**
+ * Shared helpers of the command line checks, which print what they measured and exit with a
+ * non-zero status when a claim does not hold.
+ */
+final class Checks {
+    private Checks() {}
+
+    static void require(boolean condition, String message) {
+        if (!condition) {
+            System.err.println("FAILED: " + message);
+            System.exit(1);
+        }
+    }
+}
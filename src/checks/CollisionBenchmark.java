@@ -0,0 +1,54 @@
+package checks;
+
+import beziercurve.BezierCurve;
+import beziercurve.BezierFollower;
+import beziercurve.CollisionDetector;
+import beziercurve.SimulationSetup;
+import beziercurve.SimulationWorld;
+import math.geometry.Translation2d;
+
+import java.util.Random;
+
+/**
+ * Runs growing crowds of robots that cross the field through each other's paths, and prints how many
+ * pairs the broadphase lets through to the narrowphase per tick, out of all pairs.
+ */
+public class CollisionBenchmark {
+    private static final double MARGIN = 0.5;
+    private static final double SECONDS = 5;
+
+    public static void main(String[] args) {
+        for (int robots : new int[] {10, 40, 160}) {
+            SimulationWorld world = createCrossing(robots, new Random(3));
+            CollisionDetector detector = new CollisionDetector(SimulationSetup.ROBOT_WIDTH, MARGIN);
+            world.setCollisionDetector(detector);
+
+            long start = System.nanoTime();
+            world.run(SECONDS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long pairs = (long) robots * (robots - 1) / 2;
+            System.out.printf("%d robots: %d of %d pairs reach the narrowphase per tick, %d contacts, %.3f s%n",
+                    robots, detector.getNarrowphaseChecks() / world.getTicks(), pairs, detector.getContactEvents().size(), seconds);
+            Checks.require(detector.getNarrowphaseChecks() / world.getTicks() < pairs, "the broadphase did not prune any pairs");
+        }
+    }
+
+    /**
+     * @return A world of robots on a grid, each driving through a random point to the opposite side
+     *     of the field.
+     */
+    private static SimulationWorld createCrossing(int robots, Random random) {
+        SimulationWorld world = new SimulationWorld(SimulationSetup.ROBOT_CONSTANTS);
+        for (int i = 0; i < robots; i++) {
+            double x = (i % 20) * 1.2 - 12;
+            double y = (i / 20) * 1.2 - 5;
+            BezierCurve bezierCurve = new BezierCurve(new BezierCurve.Constants(4.5, 4.5, 0.7),
+                    new Translation2d(x, y),
+                    new Translation2d(x + random.nextGaussian() * 3, y + random.nextGaussian() * 3),
+                    new Translation2d(-x, -y));
+            world.add(bezierCurve, SimulationSetup.FOLLOWER_CONSTANTS, BezierFollower.Mode.FEEDFORWARD);
+        }
+        return world;
+    }
+}
@@ -0,0 +1,98 @@
+package checks;
+
+import beziercurve.BezierCurve;
+import beziercurve.BezierFollower;
+import beziercurve.CollisionDetector;
+import beziercurve.PathCoordinator;
+import beziercurve.PathSchedule;
+import beziercurve.SimulationSetup;
+import beziercurve.SimulationWorld;
+import math.geometry.Translation2d;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends robots across the field through one shared point, once all at the same time and once as the
+ * coordinator plans them, and checks that every plan is conflict free and that the planned robots
+ * never touch. It also drives a robot on a slowed down plan in every mode, and checks that none
+ * drives faster than the plan's speed cap.
+ */
+public class CoordinationCheck {
+    private static final double MARGIN = 0.5;
+    private static final double SPACING = 2.5;
+    private static final double SECONDS = 40;
+    private static final double SLOW_SPEED_SCALE = 0.5;
+    private static final double TOLERANCE = 1e-9;
+
+    public static void main(String[] args) {
+        int robots = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+
+        List<BezierCurve> bezierCurves = new ArrayList<>();
+        List<PathSchedule> schedules = new ArrayList<>();
+        double half = SPACING * robots / 2;
+        for (int i = 0; i < robots; i++) {
+            double startY = -half + SPACING * i;
+            double endY = half - SPACING * i;
+            BezierCurve bezierCurve = new BezierCurve(new BezierCurve.Constants(4.5, 4.5, 0.7),
+                    new Translation2d(-7, startY),
+                    new Translation2d(0, (startY + endY) / 2),
+                    new Translation2d(7, endY));
+            bezierCurves.add(bezierCurve);
+            schedules.add(new PathSchedule(bezierCurve, new PathSchedule.Constants(200, 2, 0.5, 3.5)));
+        }
+
+        PathCoordinator coordinator = new PathCoordinator(new PathCoordinator.Constants(0.25, 0.1, 1.3, 3, 150, 1.0, 0.7, 0.5));
+        long start = System.nanoTime();
+        List<PathCoordinator.Plan> plans = coordinator.plan(bezierCurves, schedules);
+        double coldMillis = (System.nanoTime() - start) / 1e6;
+        // The first plan also pays for loading and compiling the planner
+        start = System.nanoTime();
+        coordinator.plan(bezierCurves, schedules);
+        System.out.printf("Planned %d robots in %.1f ms, %.1f ms the second time%n", robots, coldMillis, (System.nanoTime() - start) / 1e6);
+        for (PathCoordinator.Plan plan : plans) {
+            System.out.println(plan);
+        }
+
+        SimulationWorld uncoordinated = new SimulationWorld(SimulationSetup.ROBOT_CONSTANTS);
+        SimulationWorld coordinated = new SimulationWorld(SimulationSetup.ROBOT_CONSTANTS);
+        for (int i = 0; i < robots; i++) {
+            uncoordinated.add(bezierCurves.get(i), SimulationSetup.FOLLOWER_CONSTANTS, BezierFollower.Mode.FEEDFORWARD);
+            coordinated.add(bezierCurves.get(i), plans.get(i), SimulationSetup.FOLLOWER_CONSTANTS, BezierFollower.Mode.FEEDFORWARD);
+        }
+        int uncoordinatedContacts = countContacts(uncoordinated);
+        int coordinatedContacts = countContacts(coordinated);
+        System.out.println("Contacts without coordination: " + uncoordinatedContacts);
+        System.out.println("Contacts with coordination: " + coordinatedContacts);
+
+        Checks.require(plans.stream().allMatch(PathCoordinator.Plan::conflictFree), "a plan is not conflict free");
+        Checks.require(coordinatedContacts == 0, "coordinated robots touched");
+
+        // A planner that may only slow down gives a plan capped below the curve's max velocity
+        PathCoordinator slowCoordinator = new PathCoordinator(new PathCoordinator.Constants(0.25, 0.1, 1.3, 3, 0, SLOW_SPEED_SCALE));
+        PathCoordinator.Plan slowPlan = slowCoordinator.plan(bezierCurves.subList(0, 1), schedules.subList(0, 1)).get(0);
+        for (BezierFollower.Mode mode : BezierFollower.Mode.values()) {
+            double topSpeed = getTopSpeed(bezierCurves.get(0), slowPlan, mode);
+            System.out.printf("%s top speed: %.3f m/s (cap %.3f m/s)%n", mode, topSpeed, slowPlan.maxVelocity());
+            Checks.require(topSpeed <= slowPlan.maxVelocity() + TOLERANCE, mode + " drove faster than the plan's speed cap");
+        }
+    }
+
+    private static double getTopSpeed(BezierCurve bezierCurve, PathCoordinator.Plan plan, BezierFollower.Mode mode) {
+        SimulationWorld world = new SimulationWorld(SimulationSetup.ROBOT_CONSTANTS);
+        int robot = world.add(bezierCurve, plan, SimulationSetup.FOLLOWER_CONSTANTS, mode);
+        double topSpeed = 0;
+        for (long step = Math.round(SECONDS / SimulationSetup.ROBOT_CONSTANTS.period()); step > 0; step--) {
+            world.step();
+            topSpeed = Math.max(topSpeed, world.getSpeed(robot));
+        }
+        return topSpeed;
+    }
+
+    private static int countContacts(SimulationWorld world) {
+        CollisionDetector detector = new CollisionDetector(SimulationSetup.ROBOT_WIDTH, MARGIN);
+        world.setCollisionDetector(detector);
+        world.run(SECONDS);
+        return detector.getContactEvents().size();
+    }
+}
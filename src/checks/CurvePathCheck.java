@@ -0,0 +1,60 @@
+package checks;
+
+import beziercurve.BezierCurve;
+import beziercurve.CurvePath;
+import beziercurve.SimulationSetup;
+import math.geometry.Translation2d;
+
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tessellates the GUI's curve at a one millimeter tolerance, and measures how far the curve strays
+ * from the lines at densely sampled points.
+ */
+public class CurvePathCheck {
+    private static final double TOLERANCE = 0.001;
+    private static final int SAMPLES = 100_000;
+
+    public static void main(String[] args) {
+        BezierCurve bezierCurve = SimulationSetup.createCurve();
+        CurvePath curvePath = new CurvePath(bezierCurve, () -> {});
+        List<double[]> points = getPoints(curvePath.getShape(TOLERANCE).getPathIterator(null));
+
+        double maxError = 0;
+        for (int i = 0; i <= SAMPLES; i++) {
+            Translation2d location = bezierCurve.getLocation((double) i / SAMPLES);
+            double error = Double.POSITIVE_INFINITY;
+            for (int j = 1; j < points.size(); j++) {
+                error = Math.min(error, getDistance(location.getX(), location.getY(), points.get(j - 1), points.get(j)));
+            }
+            maxError = Math.max(maxError, error);
+        }
+
+        System.out.printf("%d lines, max error %.3f mm at a %.3f mm tolerance%n",
+                curvePath.getSegments(), maxError * 1000, TOLERANCE * 1000);
+        Checks.require(maxError <= TOLERANCE, "the path strays further than the tolerance from the curve");
+    }
+
+    private static List<double[]> getPoints(PathIterator iterator) {
+        List<double[]> points = new ArrayList<>();
+        double[] coordinates = new double[6];
+        for (; !iterator.isDone(); iterator.next()) {
+            iterator.currentSegment(coordinates);
+            points.add(new double[] {coordinates[0], coordinates[1]});
+        }
+        return points;
+    }
+
+    /**
+     * @return The distance of the point from the line between the two points.
+     */
+    private static double getDistance(double x, double y, double[] start, double[] end) {
+        double dx = end[0] - start[0];
+        double dy = end[1] - start[1];
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, ((x - start[0]) * dx + (y - start[1]) * dy) / lengthSquared)) : 0;
+        return Math.hypot(x - (start[0] + t * dx), y - (start[1] + t * dy));
+    }
+}
@@ -0,0 +1,49 @@
+package checks;
+
+import beziercurve.pid.PIDPreset;
+import beziercurve.pid.ProfiledPIDController;
+import beziercurve.pid.TrapezoidProfile;
+import util.SimulatedClock;
+
+/**
+ * Steps a jerk-limited controller on a simulated clock, with the measurement following the setpoint
+ * exactly, and checks that the setpoint keeps to the preset's acceleration and jerk.
+ */
+public class ProfileCheck {
+    private static final double PERIOD = 0.02;
+    private static final double TOLERANCE = 1e-6;
+
+    public static void main(String[] args) {
+        PIDPreset preset = new PIDPreset(1, 0, 0, 2, 3, 5);
+        ProfiledPIDController controller = preset.createController();
+        SimulatedClock clock = new SimulatedClock(0);
+        controller.setClock(clock);
+        controller.reset(0);
+
+        double position = 0;
+        double lastVelocity = 0;
+        double lastAcceleration = 0;
+        double maxAcceleration = 0;
+        double maxJerk = 0;
+        for (int tick = 0; tick < 500; tick++) {
+            clock.advance(PERIOD);
+            controller.calculate(position, 10);
+            TrapezoidProfile.State setpoint = controller.getSetpoint();
+            position = setpoint.position;
+
+            // Differentiated over a tick, so both are averages over it and stay within the limits
+            double acceleration = (setpoint.velocity - lastVelocity) / PERIOD;
+            maxAcceleration = Math.max(maxAcceleration, Math.abs(acceleration));
+            maxJerk = Math.max(maxJerk, Math.abs(acceleration - lastAcceleration) / PERIOD);
+            lastVelocity = setpoint.velocity;
+            lastAcceleration = acceleration;
+        }
+
+        System.out.printf("Max acceleration: %.3f (limit %.3f)%n", maxAcceleration, preset.getMaxAccel());
+        System.out.printf("Max jerk: %.3f (limit %.3f)%n", maxJerk, preset.getMaxJerk());
+        System.out.printf("End position: %.3f (goal 10)%n", position);
+        Checks.require(maxAcceleration <= preset.getMaxAccel() + TOLERANCE, "acceleration limit exceeded");
+        Checks.require(maxJerk <= preset.getMaxJerk() + TOLERANCE, "jerk limit exceeded");
+        Checks.require(Math.abs(position - 10) < TOLERANCE, "goal not reached");
+    }
+}
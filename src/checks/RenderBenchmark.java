@@ -0,0 +1,84 @@
+package checks;
+
+import beziercurve.BezierCurve;
+import beziercurve.CurvePath;
+import beziercurve.FieldView;
+import beziercurve.SimulationSetup;
+import gui.Grid;
+import gui.ImageCache;
+import gui.OffscreenRenderer;
+import gui.types.draw.DrawCentered;
+import gui.types.field.ZeroCenter;
+import math.geometry.Translation2d;
+
+import java.awt.*;
+
+/**
+ * Renders the GUI's view headless, once over the field image and once over the grid, and prints
+ * the average frame time of each once their layers are cached.
+ */
+public class RenderBenchmark {
+    private static final int WARMUP_FRAMES = 100;
+    private static final int FRAMES = 500;
+
+    public static void main(String[] args) {
+        double gridMillis = measure(new ViewRenderer(false));
+        double fieldMillis = measure(new ViewRenderer(true));
+        System.out.printf("Grid frame: %.2f ms, field frame: %.2f ms%n", gridMillis, fieldMillis);
+        Checks.require(gridMillis <= fieldMillis * 1.5, "a grid frame is much slower than a field frame");
+    }
+
+    private static double measure(ViewRenderer renderer) {
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            renderer.drawFrame(i);
+            renderer.render();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            renderer.drawFrame(i);
+            renderer.render();
+        }
+        return (System.nanoTime() - start) / 1e6 / FRAMES;
+    }
+
+    private static class ViewRenderer extends OffscreenRenderer implements ZeroCenter, DrawCentered {
+        private final boolean field;
+        private final BezierCurve bezierCurve = SimulationSetup.createCurve();
+        private final CurvePath curvePath = new CurvePath(this.bezierCurve, () -> this.invalidateLayer(FieldView.PATH_LAYER));
+        private final ImageCache images = new ImageCache();
+        private final Grid grid;
+
+        private ViewRenderer(boolean field) {
+            super(FieldView.DIMENSION, FieldView.convertMaxValueToPixels(FieldView.MAX_VALUE));
+            this.field = field;
+            Translation2d dimension = this.getDimensionWithUnits();
+            this.grid = new Grid(dimension.getX() / 2, dimension.getY() / 2, FieldView.GRID_SPACING, 1, convertPixelsToUnits(20));
+        }
+
+        /**
+         * Draws a frame like the GUI does, with the robot moved along the curve.
+         */
+        private void drawFrame(int frame) {
+            this.clear();
+            this.drawLayer(FieldView.FIELD_LAYER, this::drawField);
+            this.drawLayer(FieldView.PATH_LAYER, this::drawPath);
+
+            Translation2d location = this.bezierCurve.getLocation((frame % 100) / 100d);
+            int robotPixels = (int) convertUnits(SimulationSetup.ROBOT_WIDTH);
+            this.drawImage(this.images.getImage(FieldView.ROBOT_IMAGE, robotPixels, robotPixels),
+                    location.getX(), location.getY(), SimulationSetup.ROBOT_WIDTH, SimulationSetup.ROBOT_WIDTH, frame);
+        }
+
+        private void drawField() {
+            if (this.field)
+                this.drawImage(this.images.getImage(FieldView.FIELD_IMAGE, FieldView.DIMENSION.getX(), FieldView.DIMENSION.getY()),
+                        0, 0, FieldView.DIMENSION.getX(), FieldView.DIMENSION.getY());
+            else
+                this.drawGrid(this.grid, FieldView.GRID_MINOR_COLOR, FieldView.GRID_MAJOR_COLOR);
+        }
+
+        private void drawPath() {
+            this.drawShape(this.curvePath.getShape(convertPixelsToUnits(1)), convertPixelsToUnits(4), Color.RED);
+        }
+    }
+}
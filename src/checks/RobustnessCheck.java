@@ -0,0 +1,42 @@
+package checks;
+
+import beziercurve.BezierFollower;
+import beziercurve.RandomDisturbance;
+import beziercurve.RobustnessTrials;
+import beziercurve.SimulationSetup;
+
+/**
+ * Runs the same seeded batch of disturbed runs sequentially and in parallel, prints both summaries,
+ * and checks that they are identical.
+ */
+public class RobustnessCheck {
+    private static final int TRIALS = 64;
+    private static final double TIMEOUT = 20;
+
+    public static void main(String[] args) {
+        RandomDisturbance.Constants disturbance = new RandomDisturbance.Constants(2, 0.05, 0.05, 0.03, 0.01, 0.02, 0.02, 0.01);
+        BezierFollower.Mode mode = args.length > 0 ? BezierFollower.Mode.valueOf(args[0]) : BezierFollower.Mode.FEEDFORWARD;
+
+        RobustnessTrials.Result sequential = createTrials(mode, disturbance).run(TRIALS, TIMEOUT, false);
+        RobustnessTrials.Result parallel = createTrials(mode, disturbance).run(TRIALS, TIMEOUT, true);
+        print("Sequential", sequential);
+        print("Parallel", parallel);
+
+        Checks.require(sequential.finished() == parallel.finished()
+                && sequential.meanTime() == parallel.meanTime()
+                && sequential.meanCrossTrackError() == parallel.meanCrossTrackError()
+                && sequential.maxCrossTrackError() == parallel.maxCrossTrackError(),
+                "the parallel batch differs from the sequential one");
+    }
+
+    private static RobustnessTrials createTrials(BezierFollower.Mode mode, RandomDisturbance.Constants disturbance) {
+        return new RobustnessTrials(SimulationSetup.createCurve(), SimulationSetup.ROBOT_CONSTANTS, SimulationSetup.FOLLOWER_CONSTANTS,
+                mode, new RandomDisturbance(disturbance, 42));
+    }
+
+    private static void print(String name, RobustnessTrials.Result result) {
+        System.out.printf("%s: %d of %d finished in %.3f s on average, cross-track error %.3f m mean, %.3f m max, took %.3f s%n",
+                name, result.finished(), result.trials(), result.meanTime(), result.meanCrossTrackError(),
+                result.maxCrossTrackError(), result.seconds());
+    }
+}
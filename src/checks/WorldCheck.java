@@ -0,0 +1,43 @@
+package checks;
+
+import beziercurve.BezierCurve;
+import beziercurve.BezierFollower;
+import beziercurve.SimulationSetup;
+import beziercurve.SimulationWorld;
+
+/**
+ * Steps the same world of robots in one range and split into several, prints how long each took,
+ * and checks that every robot ends in exactly the same pose.
+ */
+public class WorldCheck {
+    private static final double SECONDS = 10;
+
+    public static void main(String[] args) {
+        int robots = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int ranges = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        SimulationWorld single = run(robots, 1);
+        SimulationWorld split = run(robots, ranges);
+        for (int i = 0; i < robots; i++) {
+            Checks.require(single.getX(i) == split.getX(i) && single.getY(i) == split.getY(i) && single.getTheta(i) == split.getTheta(i),
+                    "robot " + i + " ended elsewhere when the world was split");
+        }
+        System.out.println("All " + robots + " robots ended in the same pose with 1 and " + ranges + " ranges");
+    }
+
+    private static SimulationWorld run(int robots, int ranges) {
+        BezierCurve bezierCurve = SimulationSetup.createCurve();
+        SimulationWorld world = new SimulationWorld(SimulationSetup.ROBOT_CONSTANTS);
+        for (int i = 0; i < robots; i++) {
+            world.add(bezierCurve, SimulationSetup.FOLLOWER_CONSTANTS,
+                    i % 2 == 0 ? BezierFollower.Mode.FEEDFORWARD : BezierFollower.Mode.MODEL_PREDICTIVE);
+        }
+        world.setParallelism(ranges);
+
+        long start = System.nanoTime();
+        world.run(SECONDS);
+        System.out.printf("%d ranges: %.3f s for %.1f simulated seconds of %d robots%n",
+                ranges, (System.nanoTime() - start) / 1e9, world.getSeconds(), robots);
+        return world;
+    }
+}
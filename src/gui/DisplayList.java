@@ -0,0 +1,397 @@
+package gui;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The draw commands of one frame, recorded into flat arrays that are kept between frames: an
+ * opcode per command, its numeric arguments and the objects it needs, like colors and images.
+ * Recording a frame only writes into these arrays, so once they have grown to the size of a frame
+ * drawing allocates nothing.
+ *
+ * <p>Shapes are recorded in world units and painted through the world to screen transform the list
+ * was last given, with antialiasing, so they keep their sub-pixel positions. Text, images and layers
+ * are recorded in screen pixels.
+ */
+class DisplayList {
+    private static final int COLOR = 0;
+    private static final int WORLD = 1;
+    private static final int SCREEN = 2;
+    private static final int FILL_RECT = 3;
+    private static final int DRAW_RECT = 4;
+    private static final int FILL_OVAL = 5;
+    private static final int DRAW_OVAL = 6;
+    private static final int LINE = 7;
+    private static final int POLYLINE = 8;
+    private static final int POLYGON = 9;
+    private static final int FILL_POLYGON = 10;
+    private static final int STRING = 11;
+    private static final int IMAGE = 12;
+    private static final int ROTATED_IMAGE = 13;
+    private static final int LAYER = 14;
+    private static final int SHAPE = 15;
+    private static final int TEXT = 16;
+
+    /** Strokes are shared between lists; a zoom level only adds a few widths, so the cache is just dropped when it grows. */
+    private static final int MAX_STROKES = 256;
+    private static final Map<Float, BasicStroke> STROKES = new ConcurrentHashMap<>();
+    /** Fonts are shared the same way, one for every size text is written in. */
+    private static final int MAX_FONTS = 64;
+    private static final Map<Integer, Font> FONTS = new ConcurrentHashMap<>();
+
+    private int[] ops = new int[256];
+    private double[] args = new double[1024];
+    private Object[] refs = new Object[256];
+
+    private int opCount = 0;
+    private int argCount = 0;
+    private int refCount = 0;
+
+    private boolean world = false;
+    private final double[] matrix = new double[6];
+    private final double[] lastMatrix = new double[6];
+
+    private final AffineTransform transform = new AffineTransform();
+    private final Rectangle2D.Double rect = new Rectangle2D.Double();
+    private final Ellipse2D.Double ellipse = new Ellipse2D.Double();
+    private final Line2D.Double line = new Line2D.Double();
+    private final Path2D.Double path = new Path2D.Double();
+
+    /** Whether the list holds a frame that has not been painted yet. */
+    volatile boolean fresh = false;
+
+    public void clear() {
+        // Drop the references so old images and strings can be collected
+        Arrays.fill(this.refs, 0, this.refCount, null);
+        this.opCount = 0;
+        this.argCount = 0;
+        this.refCount = 0;
+        this.world = false;
+    }
+
+    public int size() {
+        return opCount;
+    }
+
+    public void setColor(Color color) {
+        this.op(COLOR);
+        this.ref(color);
+    }
+
+    /**
+     * Records the next shapes in world units, painted through the transform.
+     */
+    public void world(AffineTransform worldToScreen) {
+        worldToScreen.getMatrix(this.matrix);
+        if (this.world && Arrays.equals(this.matrix, this.lastMatrix))
+            return;
+
+        this.op(WORLD);
+        this.ensureArgs(6);
+        for (double value : this.matrix) {
+            this.args[this.argCount++] = value;
+        }
+        System.arraycopy(this.matrix, 0, this.lastMatrix, 0, 6);
+        this.world = true;
+    }
+
+    private void screen() {
+        if (!this.world)
+            return;
+
+        this.op(SCREEN);
+        this.world = false;
+    }
+
+    public void fillRect(double x, double y, double width, double height) {
+        this.op(FILL_RECT);
+        this.args(x, y, width, height);
+    }
+
+    public void drawRect(double x, double y, double width, double height, double lineWidth) {
+        this.op(DRAW_RECT);
+        this.args(x, y, width, height);
+        this.arg(lineWidth);
+    }
+
+    public void fillOval(double x, double y, double width, double height) {
+        this.op(FILL_OVAL);
+        this.args(x, y, width, height);
+    }
+
+    public void drawOval(double x, double y, double width, double height, double lineWidth) {
+        this.op(DRAW_OVAL);
+        this.args(x, y, width, height);
+        this.arg(lineWidth);
+    }
+
+    /**
+     * Draws a line with round ends.
+     */
+    public void drawLine(double x1, double y1, double x2, double y2, double lineWidth) {
+        this.op(LINE);
+        this.args(x1, y1, x2, y2);
+        this.arg(lineWidth);
+    }
+
+    /**
+     * Draws connected lines with round ends and joins.
+     */
+    public void drawPolyline(double[] x, double[] y, int points, double lineWidth) {
+        this.op(POLYLINE);
+        this.arg(lineWidth);
+        this.points(x, y, points);
+    }
+
+    public void drawPolygon(double[] x, double[] y, int points, double lineWidth) {
+        this.op(POLYGON);
+        this.arg(lineWidth);
+        this.points(x, y, points);
+    }
+
+    public void fillPolygon(double[] x, double[] y, int points) {
+        this.op(FILL_POLYGON);
+        this.points(x, y, points);
+    }
+
+    /**
+     * Draws a shape that is not modified anymore, like a cached path.
+     */
+    public void drawShape(Shape shape, double lineWidth) {
+        this.op(SHAPE);
+        this.ref(shape);
+        this.arg(lineWidth);
+    }
+
+    public void drawString(String text, double x, double y, double size) {
+        this.screen();
+        this.op(STRING);
+        this.ref(text);
+        this.ensureArgs(3);
+        this.args[this.argCount++] = x;
+        this.args[this.argCount++] = y;
+        this.args[this.argCount++] = size;
+    }
+
+    /**
+     * Draws a line of a {@link Hud}, whose glyphs are only laid out again when its text changed.
+     */
+    public void drawText(Hud.Line line, double x, double y, double size) {
+        this.screen();
+        this.op(TEXT);
+        this.ref(line);
+        this.ensureArgs(3);
+        this.args[this.argCount++] = x;
+        this.args[this.argCount++] = y;
+        this.args[this.argCount++] = size;
+    }
+
+    public void drawImage(Image image, double x, double y, double width, double height) {
+        this.screen();
+        this.op(IMAGE);
+        this.ref(image);
+        this.args(x, y, width, height);
+    }
+
+    public void drawImage(Image image, double x, double y, double width, double height, double angle, double pivotX, double pivotY) {
+        this.screen();
+        this.op(ROTATED_IMAGE);
+        this.ref(image);
+        this.args(x, y, width, height);
+        this.ensureArgs(3);
+        this.args[this.argCount++] = angle;
+        this.args[this.argCount++] = pivotX;
+        this.args[this.argCount++] = pivotY;
+    }
+
+    public void drawLayer(Layer layer, DisplayList commands) {
+        this.screen();
+        this.op(LAYER);
+        this.ref(layer);
+        this.ref(commands);
+    }
+
+    public void paint(Graphics2D g) {
+        AffineTransform base = g.getTransform();
+        Object antialiasing = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        Stroke stroke = g.getStroke();
+
+        int arg = 0;
+        int ref = 0;
+        double[] a = this.args;
+        for (int i = 0; i < this.opCount; i++) {
+            switch (this.ops[i]) {
+                case COLOR -> g.setColor((Color) this.refs[ref++]);
+                case WORLD -> {
+                    this.transform.setTransform(a[arg], a[arg + 1], a[arg + 2], a[arg + 3], a[arg + 4], a[arg + 5]);
+                    g.setTransform(base);
+                    g.transform(this.transform);
+                    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                    arg += 6;
+                }
+                case SCREEN -> {
+                    g.setTransform(base);
+                    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+                }
+                case FILL_RECT -> {
+                    this.rect.setRect(a[arg], a[arg + 1], a[arg + 2], a[arg + 3]);
+                    g.fill(this.rect);
+                    arg += 4;
+                }
+                case DRAW_RECT -> {
+                    this.rect.setRect(a[arg], a[arg + 1], a[arg + 2], a[arg + 3]);
+                    stroke(g, this.rect, a[arg + 4]);
+                    arg += 5;
+                }
+                case FILL_OVAL -> {
+                    this.ellipse.setFrame(a[arg], a[arg + 1], a[arg + 2], a[arg + 3]);
+                    g.fill(this.ellipse);
+                    arg += 4;
+                }
+                case DRAW_OVAL -> {
+                    this.ellipse.setFrame(a[arg], a[arg + 1], a[arg + 2], a[arg + 3]);
+                    stroke(g, this.ellipse, a[arg + 4]);
+                    arg += 5;
+                }
+                case LINE -> {
+                    this.line.setLine(a[arg], a[arg + 1], a[arg + 2], a[arg + 3]);
+                    stroke(g, this.line, a[arg + 4]);
+                    arg += 5;
+                }
+                case POLYLINE, POLYGON -> {
+                    double lineWidth = a[arg++];
+                    arg = this.path(a, arg, this.ops[i] == POLYGON);
+                    stroke(g, this.path, lineWidth);
+                }
+                case FILL_POLYGON -> {
+                    arg = this.path(a, arg, true);
+                    g.fill(this.path);
+                }
+                case SHAPE -> {
+                    stroke(g, (Shape) this.refs[ref++], a[arg]);
+                    arg += 1;
+                }
+                case STRING -> {
+                    g.setFont(getFont((int) a[arg + 2]));
+                    g.drawString((String) this.refs[ref++], (float) a[arg], (float) a[arg + 1]);
+                    arg += 3;
+                }
+                case TEXT -> {
+                    Hud.Line line = (Hud.Line) this.refs[ref++];
+                    g.drawGlyphVector(line.getGlyphs(getFont((int) a[arg + 2]), g.getFontRenderContext()), (float) a[arg], (float) a[arg + 1]);
+                    arg += 3;
+                }
+                case IMAGE -> {
+                    drawImage(g, (Image) this.refs[ref++], a[arg], a[arg + 1], a[arg + 2], a[arg + 3]);
+                    arg += 4;
+                }
+                case ROTATED_IMAGE -> {
+                    g.rotate(a[arg + 4], a[arg + 5], a[arg + 6]);
+                    drawImage(g, (Image) this.refs[ref++], a[arg], a[arg + 1], a[arg + 2], a[arg + 3]);
+                    g.setTransform(base);
+                    arg += 7;
+                }
+                case LAYER -> {
+                    ((Layer) this.refs[ref]).paint(g, (DisplayList) this.refs[ref + 1]);
+                    ref += 2;
+                }
+            }
+        }
+
+        g.setTransform(base);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+        g.setStroke(stroke);
+    }
+
+    /**
+     * Reads recorded points into the path.
+     *
+     * @return The index of the argument after the points.
+     */
+    private int path(double[] a, int arg, boolean closed) {
+        int points = (int) a[arg++];
+        this.path.reset();
+        for (int j = 0; j < points; j++, arg += 2) {
+            if (j == 0)
+                this.path.moveTo(a[arg], a[arg + 1]);
+            else
+                this.path.lineTo(a[arg], a[arg + 1]);
+        }
+        if (closed && points > 0)
+            this.path.closePath();
+        return arg;
+    }
+
+    private static void stroke(Graphics2D g, Shape shape, double lineWidth) {
+        g.setStroke(getStroke(lineWidth));
+        g.draw(shape);
+    }
+
+    private static BasicStroke getStroke(double lineWidth) {
+        if (STROKES.size() > MAX_STROKES)
+            STROKES.clear();
+        return STROKES.computeIfAbsent((float) lineWidth, w -> new BasicStroke(w, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+    }
+
+    private static Font getFont(int size) {
+        if (FONTS.size() > MAX_FONTS)
+            FONTS.clear();
+        return FONTS.computeIfAbsent(size, s -> new Font("ariel", Font.PLAIN, s));
+    }
+
+    private static void drawImage(Graphics2D g, Image image, double x, double y, double width, double height) {
+        int pixelX = (int) Math.round(x);
+        int pixelY = (int) Math.round(y);
+        // An image already scaled to its size is copied as is instead of being resampled
+        if (image.getWidth(null) == (int) Math.round(width) && image.getHeight(null) == (int) Math.round(height))
+            g.drawImage(image, pixelX, pixelY, null);
+        else
+            g.drawImage(image, pixelX, pixelY, (int) Math.round(width), (int) Math.round(height), null);
+    }
+
+    private void points(double[] x, double[] y, int points) {
+        this.ensureArgs(1 + 2 * points);
+        this.args[this.argCount++] = points;
+        for (int i = 0; i < points; i++) {
+            this.args[this.argCount++] = x[i];
+            this.args[this.argCount++] = y[i];
+        }
+    }
+
+    private void op(int op) {
+        if (this.opCount == this.ops.length)
+            this.ops = Arrays.copyOf(this.ops, this.ops.length * 2);
+        this.ops[this.opCount++] = op;
+    }
+
+    private void ref(Object ref) {
+        if (this.refCount == this.refs.length)
+            this.refs = Arrays.copyOf(this.refs, this.refs.length * 2);
+        this.refs[this.refCount++] = ref;
+    }
+
+    private void arg(double a) {
+        this.ensureArgs(1);
+        this.args[this.argCount++] = a;
+    }
+
+    private void args(double a, double b, double c, double d) {
+        this.ensureArgs(4);
+        this.args[this.argCount++] = a;
+        this.args[this.argCount++] = b;
+        this.args[this.argCount++] = c;
+        this.args[this.argCount++] = d;
+    }
+
+    private void ensureArgs(int count) {
+        if (this.argCount + count > this.args.length)
+            this.args = Arrays.copyOf(this.args, Math.max(this.args.length * 2, this.argCount + count));
+    }
+}
@@ -1,16 +1,10 @@
 package gui;
 
 public interface DrawType {
-    default int convertXWithSize(double x, double size) {
-        return (int) x;
-    }
-    default int convertYWithSize(double y, double size) {
-        return (int) y;
-    }
-    default int convertWidth(double width) {
-        return (int) width;
-    }
-    default int convertHeight(double height) {
-        return (int) height;
+    /**
+     * @return Where a shape's position is, as a fraction of its size from its top left corner.
+     */
+    default double getAnchor() {
+        return 0;
     }
 }
@@ -0,0 +1,346 @@
+package gui;
+
+import math.geometry.Dimension2d;
+import math.geometry.Translation2d;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The drawing methods of a {@link Frame}, apart from any window, so the same drawing code can paint
+ * a window or an offscreen image.
+ *
+ * <p>Drawing records into a back display list. {@link #publish()} hands the recorded frame over,
+ * and {@link #paint(Graphics2D)} paints the latest published frame, with three display lists so
+ * neither side locks: the back list is swapped with a ready list on publish, and a fresh ready list
+ * with the front list on paint. Every list is only ever held by one side, so a paint never sees a
+ * frame being recorded.
+ */
+@SuppressWarnings(value = "unused")
+public abstract class DrawingSurface implements FieldType, DrawType {
+    private final Dimension2d dimension;
+
+    private double pixelsInOneUnit;
+
+    private final AtomicReference<DisplayList> ready = new AtomicReference<>(new DisplayList());
+    private DisplayList back = new DisplayList();
+    private DisplayList front = new DisplayList();
+
+    private final Map<String, Layer> layers = new ConcurrentHashMap<>();
+    private DisplayList layerCommands;
+
+    private final AffineTransform worldToScreen = new AffineTransform();
+
+    private double[] xPoints = new double[16];
+    private double[] yPoints = new double[16];
+
+    public DrawingSurface(Dimension2d dimension, double pixelsInOneUnit) {
+        this.dimension = dimension;
+        this.pixelsInOneUnit = pixelsInOneUnit;
+        this.updateWorldToScreen();
+    }
+
+    /**
+     * @return The point in field pixels moved to screen pixels, through the same field transform
+     *     shapes are drawn through.
+     */
+    public Dimension2d convertDimension(Dimension2d dimension) {
+        Point2D point = getFieldTransform(this.dimension).transform(new Point2D.Double(dimension.getX(), dimension.getY()), null);
+        return new Dimension2d((int) Math.round(point.getX()), (int) Math.round(point.getY()));
+    }
+
+    public double convertUnits(double units) {
+        return units * this.pixelsInOneUnit;
+    }
+
+    public void setPixelsInOneUnit(double pixelsInOneUnit) {
+        if (pixelsInOneUnit != this.pixelsInOneUnit)
+            this.invalidateLayers();
+        this.pixelsInOneUnit = pixelsInOneUnit;
+        this.updateWorldToScreen();
+    }
+
+    @Override
+    public double convertPixelsToUnits(double pixels) {
+        return pixels / this.pixelsInOneUnit;
+    }
+
+    /**
+     * Draws a layer from its cached image, drawing it again with the painter first if it was
+     * invalidated or is new. Layers are drawn in the order of these calls, like any other drawing.
+     *
+     * @param name The name of the layer.
+     * @param painter Draws the layer with the surface's drawing methods.
+     */
+    public void drawLayer(String name, Runnable painter) {
+        if (this.layerCommands != null)
+            throw new IllegalStateException("Layer " + name + " drawn inside another layer");
+
+        Layer layer = this.layers.computeIfAbsent(name, n -> new Layer(new Dimension(this.dimension.getX(), this.dimension.getY())));
+        if (layer.isDirty()) {
+            this.layerCommands = layer.record();
+            try {
+                painter.run();
+            } finally {
+                this.layerCommands = null;
+            }
+        }
+        this.back.drawLayer(layer, layer.getCommands());
+    }
+
+    /**
+     * Marks a layer to be drawn again the next time it is drawn.
+     */
+    public void invalidateLayer(String name) {
+        Layer layer = this.layers.get(name);
+        if (layer != null)
+            layer.invalidate();
+    }
+
+    public void invalidateLayers() {
+        this.layers.values().forEach(Layer::invalidate);
+    }
+
+    private DisplayList commands() {
+        return this.layerCommands != null ? this.layerCommands : this.back;
+    }
+
+    /**
+     * Starts a new frame.
+     */
+    public void clear() {
+        this.back.clear();
+    }
+
+    /**
+     * Hands the frame drawn since the last {@link #clear()} over to {@link #paint(Graphics2D)}.
+     */
+    public void publish() {
+        this.back.fresh = true;
+        this.back = this.ready.getAndSet(this.back);
+        // The old ready list may never have been painted
+        this.back.fresh = false;
+        this.back.clear();
+    }
+
+    /**
+     * Paints the latest published frame, or the one painted before if none was published since.
+     */
+    public void paint(Graphics2D g) {
+        if (this.ready.get().fresh) {
+            this.front.fresh = false;
+            this.front = this.ready.getAndSet(this.front);
+        }
+        this.front.paint(g);
+    }
+
+    public Dimension2d getDimension() {
+        return dimension;
+    }
+
+    public Translation2d getDimensionWithUnits() {
+        return new Translation2d(convertPixelsToUnits(this.dimension.getX()), convertPixelsToUnits(this.dimension.getY()));
+    }
+
+    /**
+     * @return The transform from world units to screen pixels that shapes are drawn through.
+     */
+    public AffineTransform getWorldToScreen() {
+        return new AffineTransform(this.worldToScreen);
+    }
+
+    /**
+     * @return The point in world units that is drawn at the screen pixel, like under the mouse.
+     */
+    public Translation2d convertScreenToWorld(double x, double y) {
+        try {
+            Point2D point = this.worldToScreen.inverseTransform(new Point2D.Double(x, y), null);
+            return new Translation2d(point.getX(), point.getY());
+        } catch (NoninvertibleTransformException exception) {
+            throw new IllegalStateException("The surface is scaled to nothing", exception);
+        }
+    }
+
+    private void updateWorldToScreen() {
+        this.worldToScreen.setTransform(getFieldTransform(this.dimension));
+        this.worldToScreen.scale(this.pixelsInOneUnit, this.pixelsInOneUnit);
+    }
+
+    /**
+     * @return The display list to record world shapes into.
+     */
+    private DisplayList world(Color color) {
+        DisplayList list = this.commands();
+        list.world(this.worldToScreen);
+        list.setColor(color);
+        return list;
+    }
+
+    private double getScreenX(double x, double y) {
+        return this.worldToScreen.getScaleX() * x + this.worldToScreen.getShearX() * y + this.worldToScreen.getTranslateX();
+    }
+
+    private double getScreenY(double x, double y) {
+        return this.worldToScreen.getShearY() * x + this.worldToScreen.getScaleY() * y + this.worldToScreen.getTranslateY();
+    }
+
+    /**
+     * @return The lowest y of a shape of the height whose position is at the y, in world units.
+     */
+    private double getMinY(double y, double height) {
+        // The anchor is measured from the top on the screen, which is the highest y when y points up
+        if (this.worldToScreen.getScaleY() < 0)
+            return y - (height * (1 - getAnchor()));
+        return y - (height * getAnchor());
+    }
+
+    public void draw(double x, double y, Color color) {
+        double pixel = convertPixelsToUnits(1);
+        this.world(color).fillRect(x, y, pixel, pixel);
+    }
+
+    public void drawPolygon(Color color, Translation2d... translations) {
+        this.setPoints(translations);
+        this.world(color).drawPolygon(this.xPoints, this.yPoints, translations.length, convertPixelsToUnits(1));
+    }
+
+    public void drawConnectedPoints(Color color, Translation2d... translations) {
+        this.drawConnectedPoints(color, convertPixelsToUnits(1), translations);
+    }
+
+    public void drawConnectedPoints(Color color, double width, Translation2d... translations) {
+        this.setPoints(translations);
+        this.world(color).drawPolyline(this.xPoints, this.yPoints, translations.length, width);
+    }
+
+    /**
+     * Draws a shape in world units, which must not be modified after, with one call.
+     */
+    public void drawShape(Shape shape, double width, Color color) {
+        this.world(color).drawShape(shape, width);
+    }
+
+    /**
+     * Draws the grid's lines one pixel wide and its axes five, with its labels in black.
+     */
+    public void drawGrid(Grid grid, Color minorColor, Color majorColor) {
+        this.drawShape(grid.getMinorLines(), convertPixelsToUnits(1), minorColor);
+        this.drawShape(grid.getMajorLines(), convertPixelsToUnits(1), majorColor);
+        this.drawShape(grid.getAxes(), convertPixelsToUnits(5), Color.BLACK);
+        for (int i = 0; i < grid.getLabelCount(); i++) {
+            this.write(grid.getLabelX(i), grid.getLabelY(i), grid.getLabel(i), grid.getTextSize(), Color.BLACK);
+        }
+    }
+
+    public void fillPolygon(Color color, Translation2d... translations) {
+        this.setPoints(translations);
+        this.world(color).fillPolygon(this.xPoints, this.yPoints, translations.length);
+    }
+
+    private void setPoints(Translation2d... translations) {
+        if (this.xPoints.length < translations.length) {
+            this.xPoints = new double[translations.length];
+            this.yPoints = new double[translations.length];
+        }
+        for (int i = 0; i < translations.length; i++) {
+            this.xPoints[i] = translations[i].getX();
+            this.yPoints[i] = translations[i].getY();
+        }
+    }
+
+    /**
+     * @param width The width in pixels.
+     * @param height The height in pixels.
+     */
+    public void drawRect(double x, double y, int width, int height, Color color) {
+        double newWidth = convertPixelsToUnits(width);
+        double newHeight = convertPixelsToUnits(height);
+
+        this.world(color).drawRect(x - (newWidth * getAnchor()), getMinY(y, newHeight), newWidth, newHeight, convertPixelsToUnits(1));
+    }
+
+    public void drawRect(Translation2d translation1, Translation2d translation2, Color color) {
+        this.world(color).drawRect(Math.min(translation1.getX(), translation2.getX()), Math.min(translation1.getY(), translation2.getY()),
+                Math.abs(translation2.getX() - translation1.getX()), Math.abs(translation2.getY() - translation1.getY()), convertPixelsToUnits(1));
+    }
+
+    public void fillRect(double x, double y, double width, double height, Color color) {
+        this.world(color).fillRect(x - (width * getAnchor()), getMinY(y, height), width, height);
+    }
+
+    public void fillRect(Translation2d translation1, Translation2d translation2, Color color) {
+        this.world(color).fillRect(Math.min(translation1.getX(), translation2.getX()), Math.min(translation1.getY(), translation2.getY()),
+                Math.abs(translation2.getX() - translation1.getX()), Math.abs(translation2.getY() - translation1.getY()));
+    }
+
+    public void drawLine(Translation2d translation1, Translation2d translation2, double width, Color color) {
+        this.drawLine(translation1.getX(), translation1.getY(), translation2.getX(), translation2.getY(), width, color);
+    }
+
+    public void drawLine(double x1, double y1, double x2, double y2, double width, Color color) {
+        this.world(color).drawLine(x1, y1, x2, y2, width);
+    }
+
+    public void drawThinLine(Translation2d translation1, Translation2d translation2, Color color) {
+        this.drawThinLine(translation1.getX(), translation1.getY(), translation2.getX(), translation2.getY(), color);
+    }
+
+    public void drawThinLine(double x1, double y1, double x2, double y2, Color color) {
+        this.drawLine(x1, y1, x2, y2, convertPixelsToUnits(1), color);
+    }
+
+    public void drawPoint(double x, double y, double radius, Color color) {
+        double diameter = radius * 2;
+        this.world(color).drawOval(x - (diameter * getAnchor()), getMinY(y, diameter), diameter, diameter, convertPixelsToUnits(1));
+    }
+
+    public void fillPoint(double x, double y, double radius, Color color) {
+        double diameter = radius * 2;
+        this.world(color).fillOval(x - (diameter * getAnchor()), getMinY(y, diameter), diameter, diameter);
+    }
+
+    public void write(double x, double y, String text, double size, Color color) {
+        this.commands().setColor(color);
+        this.commands().drawString(text, this.getScreenX(x, y), this.getScreenY(x, y), (int) convertUnits(size));
+    }
+
+    public void drawString(double x, double y, String text, double size, Color color) {
+        this.write(x, y, text, size, color);
+    }
+
+    /**
+     * Writes the lines of the HUD downwards, the first one with its top at the y.
+     *
+     * @param spacing The space between two lines, in units.
+     */
+    public void write(double x, double y, Hud hud, double size, double spacing, Color color) {
+        this.commands().setColor(color);
+        int pixels = (int) convertUnits(size);
+        // Lines go down the screen, whichever way the y axis points
+        double step = convertUnits(size + spacing);
+        double screenX = this.getScreenX(x, y);
+        double screenY = this.getScreenY(x, y);
+        for (int i = 0; i < hud.size(); i++) {
+            this.commands().drawText(hud.getLine(i), screenX, screenY + step * i + pixels, pixels);
+        }
+    }
+
+    public void drawImage(Image image, double x, double y, double width, double height, double angle) {
+        double pixelWidth = convertUnits(width);
+        double pixelHeight = convertUnits(height);
+        double screenX = this.getScreenX(x, y);
+        double screenY = this.getScreenY(x, y);
+
+        this.commands().drawImage(image, screenX - (pixelWidth / 2), screenY - (pixelHeight / 2), pixelWidth, pixelHeight,
+                Math.toRadians(-angle), screenX, screenY);
+    }
+
+    public void drawImage(Image image, int x, int y, int width, int height) {
+        this.commands().drawImage(image, x, y, width, height);
+    }
+}
@@ -2,21 +2,15 @@ package gui;
 
 import math.geometry.Dimension2d;
 
-public interface FieldType {
-    default int convertX(double x, Dimension2d dimension) {
-        return (int) x;
-    }
-
-    default int convertY(double y, Dimension2d dimension) {
-        return (int) y;
-    }
+import java.awt.geom.AffineTransform;
 
-    default double convertPixelsToX(double pixels, Dimension2d dimension) {
-        return convertPixelsToUnits(pixels - 7);
-    }
-
-    default double convertPixelsToY(double pixels, Dimension2d dimension) {
-        return convertPixelsToUnits(pixels + 30);
+public interface FieldType {
+    /**
+     * @return The transform from field pixels to screen pixels, which every drawing and mouse
+     *     position goes through.
+     */
+    default AffineTransform getFieldTransform(Dimension2d dimension) {
+        return new AffineTransform();
     }
 
     double convertPixelsToUnits(double pixels);
@@ -6,25 +6,18 @@ import math.geometry.Translation2d;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
-import java.util.ConcurrentModificationException;
-import java.util.List;
-import java.util.function.Consumer;
-import java.util.function.Supplier;
+import java.awt.geom.AffineTransform;
 
 @SuppressWarnings(value = "unused")
 public abstract class   Frame extends JFrame implements FieldType, DrawType {
     private final Panel panel;
-    private final Dimension2d dimension;
-
-    private double pixelsInOneUnit;
+    private final DrawingSurface surface;
 
     public Frame(String title, Dimension2d frameSize, Color background, double pixelsInOneUnit) {
         super(title);
-        this.dimension = frameSize;
-        this.pixelsInOneUnit = pixelsInOneUnit;
+        this.surface = new FrameSurface(frameSize, pixelsInOneUnit);
 
-        this.panel = new Panel();
+        this.panel = new Panel(this.surface);
         this.add(this.panel);
 
         this.addKeyListener(new KeyHandler());
@@ -50,32 +43,39 @@ public abstract class   Frame extends JFrame implements FieldType, DrawType {
     }
 
     public Dimension2d convertDimension(Dimension2d dimension) {
-        return new Dimension2d(convertX(dimension.getX(), this.dimension), convertY(dimension.getY(), this.dimension));
+        return this.surface.convertDimension(dimension);
     }
 
     protected double convertUnits(double units) {
-        return units * this.pixelsInOneUnit;
+        return this.surface.convertUnits(units);
     }
 
     protected void setPixelsInOneUnit(double pixelsInOneUnit) {
-        this.pixelsInOneUnit = pixelsInOneUnit;
+        this.surface.setPixelsInOneUnit(pixelsInOneUnit);
     }
 
     @Override
     public double convertPixelsToUnits(double pixels) {
-        return pixels / this.pixelsInOneUnit;
+        return this.surface.convertPixelsToUnits(pixels);
+    }
+
+    /**
+     * @see DrawingSurface#drawLayer(String, Runnable)
+     */
+    public void drawLayer(String name, Runnable painter) {
+        this.surface.drawLayer(name, painter);
     }
 
-    private int convertXWithSize(double x, double size, Dimension2d dimension) {
-        return convertX(convertXWithSize(x, size), dimension);
+    public void invalidateLayer(String name) {
+        this.surface.invalidateLayer(name);
     }
 
-    private int convertYWithSize(double y, double size, Dimension2d dimension) {
-        return convertY(convertYWithSize(y, size), dimension);
+    public void invalidateLayers() {
+        this.surface.invalidateLayers();
     }
 
     public void clearFrame() {
-        this.panel.graphics.clear();
+        this.surface.clear();
         this.update();
     }
 
@@ -83,218 +83,134 @@ public abstract class   Frame extends JFrame implements FieldType, DrawType {
 //        this.repaint();
     }
 
+    /**
+     * Hands the frame drawn since the last {@link #clearFrame()} over to be painted on the next
+     * repaint.
+     */
+    public void publish() {
+        this.surface.publish();
+    }
+
     public Dimension2d getDimension() {
-        return dimension;
+        return this.surface.getDimension();
     }
 
     public Translation2d getDimensionWithUnits() {
-        return new Translation2d(convertPixelsToUnits(this.dimension.getX()), convertPixelsToUnits(this.dimension.getY()));
+        return this.surface.getDimensionWithUnits();
     }
 
-    public void draw(double x, double y, Color color) {
-        double X = convertUnits(x);
-        double Y = convertUnits(y);
+    /**
+     * @return The transform from world units to screen pixels that shapes are drawn through.
+     */
+    public AffineTransform getWorldToScreen() {
+        return this.surface.getWorldToScreen();
+    }
 
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.fillRect(convertX(X, this.dimension), convertY(Y, this.dimension), 1, 1);
-        });
-        this.update();
+    public void draw(double x, double y, Color color) {
+        this.surface.draw(x, y, color);
     }
 
     public void drawPolygon(Color color, Translation2d... translations) {
-        int[] x = new int[translations.length];
-        int[] y = new int[translations.length];
-        for (int i = 0; i < translations.length; i++) {
-            x[i] = convertX(convertUnits(translations[i].getX()), this.dimension);
-            y[i] = convertY(convertUnits(translations[i].getY()), this.dimension);
-        }
-
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.drawPolygon(x, y, translations.length);
-        });
-        this.update();
+        this.surface.drawPolygon(color, translations);
     }
 
     public void drawConnectedPoints(Color color, Translation2d... translations) {
-        int[] x = new int[translations.length];
-        int[] y = new int[translations.length];
-        for (int i = 0; i < translations.length; i++) {
-            x[i] = convertX(convertUnits(translations[i].getX()), this.dimension);
-            y[i] = convertY(convertUnits(translations[i].getY()), this.dimension);
-        }
+        this.surface.drawConnectedPoints(color, translations);
+    }
 
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.drawPolyline(x, y, translations.length);
-        });
-        this.update();
+    public void drawConnectedPoints(Color color, double width, Translation2d... translations) {
+        this.surface.drawConnectedPoints(color, width, translations);
     }
 
-    public void fillPolygon(Color color, Translation2d... translations) {
-        int[] x = new int[translations.length];
-        int[] y = new int[translations.length];
-        for (int i = 0; i < translations.length; i++) {
-            x[i] = convertX(convertUnits(translations[i].getX()), this.dimension);
-            y[i] = convertY(convertUnits(translations[i].getY()), this.dimension);
-        }
+    /**
+     * Draws a shape in world units, which must not be modified after, with one call.
+     */
+    public void drawShape(Shape shape, double width, Color color) {
+        this.surface.drawShape(shape, width, color);
+    }
 
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.fillPolygon(x, y, translations.length);
-        });
-        this.update();
+    /**
+     * @see DrawingSurface#drawGrid(Grid, Color, Color)
+     */
+    public void drawGrid(Grid grid, Color minorColor, Color majorColor) {
+        this.surface.drawGrid(grid, minorColor, majorColor);
     }
 
-    public void drawRect(double x, double y, int width, int height, Color color) {
-        double X = convertUnits(x);
-        double Y = convertUnits(y);
+    public void fillPolygon(Color color, Translation2d... translations) {
+        this.surface.fillPolygon(color, translations);
+    }
 
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.drawRect(convertXWithSize(X, width, dimension), convertYWithSize(Y, height, dimension), convertWidth(width), convertHeight(height));
-        });
+    /**
+     * @param width The width in pixels.
+     * @param height The height in pixels.
+     */
+    public void drawRect(double x, double y, int width, int height, Color color) {
+        this.surface.drawRect(x, y, width, height, color);
     }
 
     public void drawRect(Translation2d translation1, Translation2d translation2, Color color) {
-        Translation2d newTranslation1 = new Translation2d(convertUnits(translation1.getX()), convertUnits(translation1.getY()));
-        Translation2d newTranslation2 = new Translation2d(convertUnits(translation2.getX()), convertUnits(translation2.getY()));
-
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.drawRect(convertX(newTranslation1.getX(), this.dimension), convertY(newTranslation1.getY(), this.dimension),
-                    convertWidth(newTranslation2.getX() - newTranslation1.getX()), convertHeight(newTranslation2.getY() - newTranslation1.getY()));
-        });
-        this.update();
+        this.surface.drawRect(translation1, translation2, color);
     }
 
     public void fillRect(double x, double y, double width, double height, Color color) {
-        double X = convertUnits(x);
-        double Y = convertUnits(y);
-        double newWidth = convertUnits(width);
-        double newHeight = convertUnits(height);
-
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.fillRect(convertXWithSize(X, newWidth, dimension), convertYWithSize(Y, newHeight, dimension), convertWidth(newWidth), convertHeight(newHeight));
-        });
-        this.update();
+        this.surface.fillRect(x, y, width, height, color);
     }
 
     public void fillRect(Translation2d translation1, Translation2d translation2, Color color) {
-        Translation2d newTranslation1 = new Translation2d(convertUnits(translation1.getX()), convertUnits(translation1.getY()));
-        Translation2d newTranslation2 = new Translation2d(convertUnits(translation2.getX()), convertUnits(translation2.getY()));
-
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.fillRect(convertX(newTranslation1.getX(), this.dimension), convertY(newTranslation1.getY(), this.dimension),
-                    convertWidth(newTranslation2.getX() - newTranslation1.getX()), convertHeight(newTranslation2.getY() - newTranslation1.getY()));
-        });
-        this.update();
+        this.surface.fillRect(translation1, translation2, color);
     }
 
     public void drawLine(Translation2d translation1, Translation2d translation2, double width, Color color) {
-        width /= Math.sqrt(2);
-        double max = translation1.getDistance(translation2) - width;
-        for (double i = 0; i <= max; i += convertPixelsToUnits(1)) {
-            this.fillPoint(translation1.getX() + ((translation2.getX() - translation1.getX()) * (i / max)),
-                    translation1.getY() + ((translation2.getY() - translation1.getY()) * (i / max)),
-                    width / 2,
-                    color);
-        }
-        this.update();
+        this.surface.drawLine(translation1, translation2, width, color);
     }
 
     public void drawLine(double x1, double y1, double x2, double y2, double width, Color color) {
-        this.drawLine(new Translation2d(x1, y1), new Translation2d(x2, y2), width, color);
+        this.surface.drawLine(x1, y1, x2, y2, width, color);
     }
 
     public void drawThinLine(Translation2d translation1, Translation2d translation2, Color color) {
-        Translation2d newTranslation1 = new Translation2d(convertUnits(translation1.getX()), convertUnits(translation1.getY()));
-        Translation2d newTranslation2 = new Translation2d(convertUnits(translation2.getX()), convertUnits(translation2.getY()));
-
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.drawLine(convertX(newTranslation1.getX(), dimension), convertY(newTranslation1.getY(), dimension),
-                    convertX(newTranslation2.getX(), dimension), convertY(newTranslation2.getY(), dimension));
-        });
-        this.update();
+        this.surface.drawThinLine(translation1, translation2, color);
     }
 
     public void drawThinLine(double x1, double y1, double x2, double y2, Color color) {
-        this.drawThinLine(new Translation2d(x1, y1), new Translation2d(x2, y2), color);
+        this.surface.drawThinLine(x1, y1, x2, y2, color);
     }
 
     public void drawPoint(double x, double y, double radius, Color color) {
-        double X = convertUnits(x);
-        double Y = convertUnits(y);
-        double diameter = convertUnits(radius) * 2;
-
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.drawRoundRect(convertXWithSize(X, convertWidth(diameter), this.dimension),
-                    convertYWithSize(Y, convertHeight(diameter), this.dimension),
-                    (int) diameter,
-                    (int) diameter,
-                    (int) diameter,
-                    (int) diameter);
-        });
-        this.update();
+        this.surface.drawPoint(x, y, radius, color);
     }
 
     public void fillPoint(double x, double y, double radius, Color color) {
-        double X = convertUnits(x);
-        double Y = convertUnits(y);
-        double diameter = convertUnits(radius) * 2;
-
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.fillRoundRect(convertXWithSize(X, convertWidth(diameter), this.dimension),
-                    convertYWithSize(Y, convertHeight(diameter), this.dimension),
-                    (int) (diameter),
-                    (int) (diameter),
-                    (int) (diameter),
-                    (int) (diameter));
-        });
-        this.update();
+        this.surface.fillPoint(x, y, radius, color);
     }
 
     public void write(double x, double y, String text, double size, Color color) {
-        double X = convertUnits(x);
-        double Y = convertUnits(y);
-        double newSize = convertUnits(size);
-
-        this.panel.graphics.add(g -> {
-            g.setColor(color);
-            g.setFont(new Font("ariel", Font.PLAIN, (int) newSize));
-            g.drawString(text, convertX(X, this.dimension), convertY(Y, this.dimension));
-        });
-        this.update();
+        this.surface.write(x, y, text, size, color);
     }
 
     public void drawString(double x, double y, String text, double size, Color color) {
-        this.write(x, y, text, size, color);
-        this.update();
+        this.surface.drawString(x, y, text, size, color);
+    }
+
+    /**
+     * @see DrawingSurface#write(double, double, Hud, double, double, Color)
+     */
+    public void write(double x, double y, Hud hud, double size, double spacing, Color color) {
+        this.surface.write(x, y, hud, size, spacing, color);
     }
 
     public void drawImage(Image image, double x, double y, double width, double height, double angle) {
-        this.panel.graphics.add(g -> {
-            ((Graphics2D) g).rotate(Math.toRadians(-angle), convertX(convertUnits(x), dimension), convertY(convertUnits(y), dimension));
-            g.drawImage(image,
-                    convertX(convertUnits(x - (width / 2)), dimension),
-                    convertY(convertUnits(y + (height / 2)), dimension),
-                    (int) convertUnits(width), (int) convertUnits(height), (img, infoFlags, x1, y1, w, h) -> true);
-            ((Graphics2D) g).rotate(Math.toRadians(angle), convertX(convertUnits(x), dimension), convertY(convertUnits(y), dimension));
-        });
+        this.surface.drawImage(image, x, y, width, height, angle);
     }
 
     public void drawImage(Image image, int x, int y, int width, int height) {
-        this.panel.graphics.add(g -> g.drawImage(image, x, y, width, height, (img, infoflags, x1, y1, w, h) -> true));
+        this.surface.drawImage(image, x, y, width, height);
     }
 
     protected Translation2d getMouseTranslation(MouseEvent e) {
-        return new Translation2d(convertPixelsToX(e.getX(), this.dimension), convertPixelsToY(e.getY(), this.dimension));
+        // The events come to the frame, so the point is measured from its border rather than the panel's
+        Point point = SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), this.panel);
+        return this.surface.convertScreenToWorld(point.getX(), point.getY());
     }
 
     public void mousePressed(MouseEvent e) {}
@@ -373,18 +289,35 @@ public abstract class   Frame extends JFrame implements FieldType, DrawType {
         }
     }
 
+    /**
+     * The frame's drawing surface, drawn with the frame's field and draw types.
+     */
+    private class FrameSurface extends DrawingSurface {
+        private FrameSurface(Dimension2d dimension, double pixelsInOneUnit) {
+            super(dimension, pixelsInOneUnit);
+        }
+
+        @Override
+        public AffineTransform getFieldTransform(Dimension2d dimension) {
+            return Frame.this.getFieldTransform(dimension);
+        }
+
+        @Override
+        public double getAnchor() {
+            return Frame.this.getAnchor();
+        }
+    }
+
     private static class Panel extends JPanel {
-        private final List<Consumer<Graphics>> graphics;
+        private final DrawingSurface surface;
 
-        public Panel() {
-            this.graphics = new ArrayList<>();
+        private Panel(DrawingSurface surface) {
+            this.surface = surface;
         }
 
         @Override
         protected void paintComponent(Graphics g) {
-            try {
-                this.graphics.forEach(c -> c.accept(g));
-            } catch (ConcurrentModificationException ignored) {}
+            this.surface.paint((Graphics2D) g);
         }
     }
 }
@@ -0,0 +1,121 @@
+package gui;
+
+import java.awt.geom.Path2D;
+
+/**
+ * The lines and labels of a grid around the origin, in world units, built once into paths so a
+ * whole grid is drawn with a few shapes. A grid is only valid for the area and text size it was
+ * built for; {@link #fits} tells when it has to be built again, like after a zoom.
+ */
+public class Grid {
+    private final double halfWidth;
+    private final double halfHeight;
+    private final double textSize;
+
+    private final Path2D.Double minorLines = new Path2D.Double();
+    private final Path2D.Double majorLines = new Path2D.Double();
+    private final Path2D.Double axes = new Path2D.Double();
+
+    private final double[] labelX;
+    private final double[] labelY;
+    private final String[] labels;
+
+    /**
+     * @param halfWidth Half the width of the area, in units.
+     * @param halfHeight Half the height of the area, in units.
+     * @param spacing The distance between two lines, which fall on every whole unit and between.
+     * @param labelSpacing The distance between two labels on an axis, in whole units.
+     * @param textSize The size of the labels, in units.
+     */
+    public Grid(double halfWidth, double halfHeight, double spacing, int labelSpacing, double textSize) {
+        this.halfWidth = halfWidth;
+        this.halfHeight = halfHeight;
+        this.textSize = textSize;
+
+        int columns = (int) Math.floor(halfWidth / spacing);
+        for (int i = -columns; i <= columns; i++) {
+            Path2D.Double lines = isWhole(i * spacing) ? this.majorLines : this.minorLines;
+            lines.moveTo(i * spacing, -halfHeight);
+            lines.lineTo(i * spacing, halfHeight);
+        }
+        int rows = (int) Math.floor(halfHeight / spacing);
+        for (int i = -rows; i <= rows; i++) {
+            Path2D.Double lines = isWhole(i * spacing) ? this.majorLines : this.minorLines;
+            lines.moveTo(-halfWidth, i * spacing);
+            lines.lineTo(halfWidth, i * spacing);
+        }
+
+        this.axes.moveTo(0, -halfHeight);
+        this.axes.lineTo(0, halfHeight);
+        this.axes.moveTo(-halfWidth, 0);
+        this.axes.lineTo(halfWidth, 0);
+
+        // Every label but the origin's is written on both sides of both axes
+        int xLabels = (int) Math.floor(halfWidth / labelSpacing);
+        int yLabels = (int) Math.floor(halfHeight / labelSpacing);
+        int count = 2 * xLabels + 2 * yLabels + 2;
+        this.labelX = new double[count];
+        this.labelY = new double[count];
+        this.labels = new String[count];
+
+        int label = 0;
+        for (int i = -yLabels; i <= yLabels; i++) {
+            this.setLabel(label++, 0, i * labelSpacing - (textSize / 2), i * labelSpacing);
+        }
+        for (int i = -xLabels; i <= xLabels; i++) {
+            this.setLabel(label++, i * labelSpacing - (textSize / 2), -textSize, i * labelSpacing);
+        }
+    }
+
+    private void setLabel(int index, double x, double y, int value) {
+        this.labelX[index] = x;
+        this.labelY[index] = y;
+        this.labels[index] = value < 0 ? Integer.toString(value) : " " + value;
+    }
+
+    private static boolean isWhole(double value) {
+        return Math.abs(value - Math.rint(value)) < 1e-9;
+    }
+
+    /**
+     * @return Whether the grid was built for the area and text size.
+     */
+    public boolean fits(double halfWidth, double halfHeight, double textSize) {
+        return this.halfWidth == halfWidth && this.halfHeight == halfHeight && this.textSize == textSize;
+    }
+
+    /**
+     * @return The lines between whole units. The paths must not be modified.
+     */
+    public Path2D.Double getMinorLines() {
+        return minorLines;
+    }
+
+    public Path2D.Double getMajorLines() {
+        return majorLines;
+    }
+
+    public Path2D.Double getAxes() {
+        return axes;
+    }
+
+    public int getLabelCount() {
+        return this.labels.length;
+    }
+
+    public double getLabelX(int index) {
+        return this.labelX[index];
+    }
+
+    public double getLabelY(int index) {
+        return this.labelY[index];
+    }
+
+    public String getLabel(int index) {
+        return this.labels[index];
+    }
+
+    public double getTextSize() {
+        return textSize;
+    }
+}
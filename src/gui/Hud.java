@@ -0,0 +1,80 @@
+package gui;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+
+/**
+ * Lines of text that are written again every frame, like values shown over the field. Every line
+ * is built into a {@link StringBuilder} that is kept between frames, and a line only becomes a new
+ * string, and is laid out into glyphs again, when its text changed since the last frame it was
+ * drawn in.
+ */
+public class Hud {
+    private final StringBuilder[] builders;
+    private final Line[] lines;
+
+    public Hud(int lines) {
+        this.builders = new StringBuilder[lines];
+        this.lines = new Line[lines];
+        for (int i = 0; i < lines; i++) {
+            this.builders[i] = new StringBuilder();
+            this.lines[i] = new Line("");
+        }
+    }
+
+    /**
+     * @return The emptied builder of the line, to append its new text to.
+     */
+    public StringBuilder edit(int index) {
+        StringBuilder builder = this.builders[index];
+        builder.setLength(0);
+        return builder;
+    }
+
+    public int size() {
+        return this.lines.length;
+    }
+
+    /**
+     * @return The line with the text its builder has now, which is the line drawn last frame if the
+     *     text did not change.
+     */
+    Line getLine(int index) {
+        Line line = this.lines[index];
+        if (!line.text.contentEquals(this.builders[index])) {
+            line = new Line(this.builders[index].toString());
+            this.lines[index] = line;
+        }
+        return line;
+    }
+
+    /**
+     * The text of a line and its glyphs, which are laid out on the painting thread the first time
+     * the line is painted with a font.
+     */
+    static final class Line {
+        private final String text;
+
+        private Font font;
+        private FontRenderContext context;
+        private GlyphVector glyphs;
+
+        private Line(String text) {
+            this.text = text;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        GlyphVector getGlyphs(Font font, FontRenderContext context) {
+            if (this.glyphs == null || this.font != font || !context.equals(this.context)) {
+                this.glyphs = font.createGlyphVector(context, this.text);
+                this.font = font;
+                this.context = context;
+            }
+            return this.glyphs;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package gui;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Loads every image once and keeps copies of it scaled to the sizes it is drawn at, in the screen's
+ * pixel format, so drawing one is a plain blit that Java2D can keep in video memory.
+ */
+public class ImageCache {
+    private static final int MAX_SCALED_IMAGES = 16;
+
+    private final Map<String, BufferedImage> images = new HashMap<>();
+    private final Map<Key, BufferedImage> scaledImages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage> eldest) {
+            // Every zoom level scales some images again, so only the recent sizes are kept
+            return this.size() > MAX_SCALED_IMAGES;
+        }
+    };
+
+    /**
+     * @return The image at the path, in its own size.
+     * @throws UncheckedIOException If the image cannot be read.
+     */
+    public synchronized BufferedImage getImage(String path) {
+        BufferedImage image = this.images.get(path);
+        if (image == null) {
+            image = this.load(path);
+            this.images.put(path, image);
+        }
+        return image;
+    }
+
+    /**
+     * @return The image at the path, scaled to the size in pixels.
+     * @throws UncheckedIOException If the image cannot be read.
+     */
+    public synchronized BufferedImage getImage(String path, int width, int height) {
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+
+        Key key = new Key(path, width, height);
+        BufferedImage image = this.scaledImages.get(key);
+        if (image == null) {
+            image = createCompatibleImage(this.getImage(path), width, height);
+            this.scaledImages.put(key, image);
+        }
+        return image;
+    }
+
+    public synchronized void clear() {
+        this.images.clear();
+        this.scaledImages.clear();
+    }
+
+    private BufferedImage load(String path) {
+        try {
+            BufferedImage image = ImageIO.read(new File(path));
+            if (image == null)
+                throw new IOException("Unsupported image format: " + path);
+            return createCompatibleImage(image, image.getWidth(), image.getHeight());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static BufferedImage createCompatibleImage(BufferedImage source, int width, int height) {
+        BufferedImage image;
+        if (GraphicsEnvironment.isHeadless()) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        } else {
+            image = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+                    .createCompatibleImage(width, height, source.getTransparency());
+        }
+
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return image;
+    }
+
+    private record Key(String path, int width, int height) {}
+}
@@ -0,0 +1,72 @@
+package gui;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * A part of the frame that is drawn into its own offscreen image and only drawn again when it is
+ * marked dirty. The drawing thread records the layer into a new display list when it is dirty, and
+ * every frame refers to the recording it was drawn with; the image belongs to the painting thread,
+ * which draws a recording into it the first time a frame shows it.
+ */
+class Layer {
+    private final Dimension size;
+
+    private volatile boolean dirty = true;
+    private DisplayList commands;
+
+    private BufferedImage image;
+    private DisplayList rendered;
+
+    Layer(Dimension size) {
+        this.size = size;
+    }
+
+    public void invalidate() {
+        this.dirty = true;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Starts a new recording of the layer, for the drawing thread.
+     */
+    DisplayList record() {
+        // Cleared before drawing, so an invalidation while recording is drawn again next frame
+        this.dirty = false;
+        this.commands = new DisplayList();
+        return this.commands;
+    }
+
+    /**
+     * @return The recording the next frame shows.
+     */
+    DisplayList getCommands() {
+        return commands;
+    }
+
+    /**
+     * Draws the layer's image, for the painting thread.
+     *
+     * @param commands The recording the painted frame was drawn with.
+     */
+    void paint(Graphics2D g, DisplayList commands) {
+        if (this.image == null) {
+            this.image = g.getDeviceConfiguration().createCompatibleImage(this.size.width, this.size.height, Transparency.TRANSLUCENT);
+            this.rendered = null;
+        }
+
+        if (this.rendered != commands) {
+            Graphics2D imageGraphics = this.image.createGraphics();
+            imageGraphics.setComposite(AlphaComposite.Clear);
+            imageGraphics.fillRect(0, 0, this.size.width, this.size.height);
+            imageGraphics.setComposite(AlphaComposite.SrcOver);
+            commands.paint(imageGraphics);
+            imageGraphics.dispose();
+            this.rendered = commands;
+        }
+        g.drawImage(this.image, 0, 0, null);
+    }
+}
@@ -0,0 +1,57 @@
+package gui;
+
+import math.geometry.Dimension2d;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A {@link DrawingSurface} that paints into its own image instead of a window, so frames can be drawn
+ * without a display, like with {@code java.awt.headless=true}. A renderer is not thread safe; each
+ * thread that draws should have its own.
+ */
+public abstract class OffscreenRenderer extends DrawingSurface {
+    private final BufferedImage image;
+    private final Color background;
+
+    public OffscreenRenderer(Dimension2d dimension, Color background, double pixelsInOneUnit) {
+        super(dimension, pixelsInOneUnit);
+        this.image = new BufferedImage(dimension.getX(), dimension.getY(), BufferedImage.TYPE_INT_ARGB);
+        this.background = background;
+    }
+
+    public OffscreenRenderer(Dimension2d dimension, double pixelsInOneUnit) {
+        this(dimension, Color.WHITE, pixelsInOneUnit);
+    }
+
+    /**
+     * Paints the frame drawn since the last {@link #clear()} into the image.
+     *
+     * @return The image, which is painted over by the next render.
+     */
+    public BufferedImage render() {
+        this.publish();
+
+        Graphics2D g = this.image.createGraphics();
+        g.setColor(this.background);
+        g.fillRect(0, 0, this.image.getWidth(), this.image.getHeight());
+        this.paint(g);
+        g.dispose();
+        return this.image;
+    }
+
+    /**
+     * Paints the frame drawn since the last {@link #clear()} and writes it to a PNG file.
+     */
+    public void writePng(Path path) throws IOException {
+        if (!ImageIO.write(this.render(), "png", path.toFile()))
+            throw new IOException("No PNG writer available");
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+}
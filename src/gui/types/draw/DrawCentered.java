@@ -4,17 +4,7 @@ import gui.DrawType;
 
 public interface DrawCentered extends DrawType {
     @Override
-    default int convertXWithSize(double x, double size) {
-        return (int) (x - (size / 2));
-    }
-
-    @Override
-    default int convertYWithSize(double y, double size) {
-        return (int) (y - (size / 2));
-    }
-
-    @Override
-    default int convertHeight(double height) {
-        return (int) -height;
+    default double getAnchor() {
+        return 0.5;
     }
 }
@@ -1,26 +1,12 @@
 package gui.types.field;
 
-import gui.FieldType;
 import math.geometry.Dimension2d;
 
-public interface ZeroCenter extends ZeroLeftBottom {
-    @Override
-    default int convertX(double x, Dimension2d dimension) {
-        return (int) (x + (dimension.getX() / 2d));
-    }
-
-    @Override
-    default int convertY(double y, Dimension2d dimension) {
-        return ZeroLeftBottom.super.convertY(y + (dimension.getY() / 2d), dimension);
-    }
-
-    @Override
-    default double convertPixelsToX(double pixels, Dimension2d dimension) {
-        return ZeroLeftBottom.super.convertPixelsToX(pixels - (dimension.getX() / 2d), dimension);
-    }
+import java.awt.geom.AffineTransform;
 
+public interface ZeroCenter extends ZeroLeftBottom {
     @Override
-    default double convertPixelsToY(double pixels, Dimension2d dimension) {
-        return ZeroLeftBottom.super.convertPixelsToYFieldType((dimension.getY() - pixels) - (dimension.getY() / 2d), dimension);
+    default AffineTransform getFieldTransform(Dimension2d dimension) {
+        return new AffineTransform(1, 0, 0, -1, dimension.getX() / 2d, dimension.getY() / 2d);
     }
 }
@@ -3,23 +3,11 @@ package gui.types.field;
 import gui.FieldType;
 import math.geometry.Dimension2d;
 
-public interface ZeroLeftBottom extends FieldType {
-    @Override
-    default int convertY(double y, Dimension2d dimension) {
-        return (int) (dimension.getY() - y);
-    }
-
-    @Override
-    default double convertPixelsToX(double pixels, Dimension2d dimension) {
-        return FieldType.super.convertPixelsToX(pixels, dimension);
-    }
+import java.awt.geom.AffineTransform;
 
+public interface ZeroLeftBottom extends FieldType {
     @Override
-    default double convertPixelsToY(double pixels, Dimension2d dimension) {
-        return FieldType.super.convertPixelsToY(dimension.getY() - pixels, dimension);
-    }
-
-    default double convertPixelsToYFieldType(double pixels, Dimension2d dimension) {
-        return FieldType.super.convertPixelsToY(pixels, dimension);
+    default AffineTransform getFieldTransform(Dimension2d dimension) {
+        return new AffineTransform(1, 0, 0, -1, 0, dimension.getY());
     }
 }
@@ -0,0 +1,16 @@
+package util;
+
+/**
+ * A source of monotonic time, so the same control code can run against the wall clock or a
+ * simulated one.
+ */
+@FunctionalInterface
+public interface Clock {
+    Clock SYSTEM = System::nanoTime;
+
+    long nanoTime();
+
+    default double getSeconds() {
+        return this.nanoTime() / 1e9;
+    }
+}
@@ -0,0 +1,118 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, lock-free histogram of durations in nanoseconds.
+ *
+ * <p>Buckets are laid out like an HDR histogram: values below 2 * {@value #SUB_BUCKETS} get a bucket
+ * each, and every power of two above that is split into {@value #SUB_BUCKETS} linear sub-buckets.
+ * A recorded value is therefore off by at most 1 / {@value #SUB_BUCKETS} of itself, across the whole
+ * range of a long. Recording takes a few atomic updates, with no locks or allocation, so one thread
+ * can record while others query percentiles.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (65 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final String name;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        this.counts.incrementAndGet(getIndex(nanos));
+        this.count.incrementAndGet();
+        this.total.addAndGet(nanos);
+
+        long max;
+        while (nanos > (max = this.max.get()) && !this.max.compareAndSet(max, nanos)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return this.count.get();
+    }
+
+    public long getMaxNanos() {
+        return this.max.get();
+    }
+
+    public double getMeanNanos() {
+        long count = this.count.get();
+        return count == 0 ? 0 : (double) this.total.get() / count;
+    }
+
+    /**
+     * Returns the largest value in the bucket that holds the given percentile.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The value at the percentile in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = this.count.get();
+        if (count == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100) / 100));
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            sum += this.counts.get(i);
+            if (sum >= target)
+                return Math.min(getHighestValue(i), this.max.get());
+        }
+        return this.max.get();
+    }
+
+    public double getMillisAtPercentile(double percentile) {
+        return this.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts.set(i, 0);
+        }
+        this.count.set(0);
+        this.total.set(0);
+        this.max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d, mean=%.4f ms, p50=%.4f ms, p99=%.4f ms, p99.9=%.4f ms, max=%.4f ms",
+                this.name, this.getCount(), this.getMeanNanos() / 1e6,
+                this.getMillisAtPercentile(50), this.getMillisAtPercentile(99), this.getMillisAtPercentile(99.9),
+                this.getMaxNanos() / 1e6);
+    }
+
+    private static int getIndex(long value) {
+        if (value < 2 * SUB_BUCKETS)
+            return (int) value;
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long getHighestValue(int index) {
+        if (index < 2 * SUB_BUCKETS)
+            return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index - (long) shift * SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,29 @@
+package util;
+
+/**
+ * A clock that only moves when told to, for simulations and replays that run faster than real time.
+ */
+public class SimulatedClock implements Clock {
+    private volatile long nanos;
+
+    public SimulatedClock(long nanos) {
+        this.nanos = nanos;
+    }
+
+    public SimulatedClock() {
+        this(0);
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    public void advance(double seconds) {
+        this.nanos += (long) (seconds * 1e9);
+    }
+
+    public void setSeconds(double seconds) {
+        this.nanos = (long) (seconds * 1e9);
+    }
+}